@@ -0,0 +1,81 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.regions.Region;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link BatchTokenGenerator} throughput for a batch of distinct tenant credentials across 15
+ * regions, at increasing parallelism. Throughput should grow with parallelism up to the number of cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchTokenGeneratorBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final Region[] REGIONS = {
+        Region.US_EAST_1, Region.US_EAST_2, Region.US_WEST_2, Region.EU_WEST_1, Region.EU_WEST_2,
+        Region.EU_WEST_3, Region.EU_CENTRAL_1, Region.EU_NORTH_1, Region.AP_NORTHEAST_1, Region.AP_NORTHEAST_2,
+        Region.AP_SOUTHEAST_1, Region.AP_SOUTHEAST_2, Region.AP_SOUTH_1, Region.CA_CENTRAL_1, Region.SA_EAST_1
+    };
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private ExecutorService executor;
+    private BatchTokenGenerator batch;
+    private List<TokenRequest> requests;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        executor = Executors.newFixedThreadPool(parallelism);
+        batch = BatchTokenGenerator.builder()
+                .parallelism(parallelism)
+                .executor(executor)
+                .build();
+        requests = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            requests.add(TokenRequest.create(
+                    AwsBasicCredentials.create("AKIAIOSFODNN7" + i, "wJalrXUtnFEMI/K7MDENG/bPxRfiCY" + i),
+                    REGIONS[i % REGIONS.length]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<TokenResult> getTokens() {
+        return batch.getTokens(requests);
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares hashing a canonical request and signing the string to sign with reused {@link CryptoEngines}
+ * against looking up new {@link Mac} and {@link MessageDigest} instances for every token, at 1, 8 and 64
+ * threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CryptoEnginesBenchmark {
+
+    private byte[] signingKey;
+    private byte[] canonicalRequest;
+    private byte[] stringToSign;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        signingKey = new byte[32];
+        random.nextBytes(signingKey);
+        canonicalRequest = randomAscii(random, 1024);
+        stringToSign = randomAscii(random, 128);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] reusedEngines_1Thread() {
+        return reusedEngines();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public byte[] reusedEngines_8Threads() {
+        return reusedEngines();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public byte[] reusedEngines_64Threads() {
+        return reusedEngines();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] providerLookup_1Thread() throws GeneralSecurityException {
+        return providerLookup();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public byte[] providerLookup_8Threads() throws GeneralSecurityException {
+        return providerLookup();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public byte[] providerLookup_64Threads() throws GeneralSecurityException {
+        return providerLookup();
+    }
+
+    private byte[] reusedEngines() {
+        CryptoEngines engines = CryptoEngines.acquire();
+        try {
+            byte[] hash = engines.sha256(canonicalRequest, canonicalRequest.length);
+            System.arraycopy(hash, 0, stringToSign, 0, hash.length);
+            return engines.hmacSha256(signingKey, stringToSign);
+        } finally {
+            engines.release();
+        }
+    }
+
+    private byte[] providerLookup() throws GeneralSecurityException {
+        byte[] hash = MessageDigest.getInstance(CryptoEngines.DIGEST_ALGORITHM).digest(canonicalRequest);
+        System.arraycopy(hash, 0, stringToSign, 0, hash.length);
+        Mac mac = Mac.getInstance(CryptoEngines.HMAC_ALGORITHM);
+        mac.init(new SecretKeySpec(signingKey, CryptoEngines.HMAC_ALGORITHM));
+        return mac.doFinal(stringToSign);
+    }
+
+    private static byte[] randomAscii(Random random, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (' ' + random.nextInt(95));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer for writing the ASCII text of a presigned request. Buffers are meant to be reused,
+ * so that in steady state writing into them does not allocate.
+ */
+final class AsciiBuffer {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX_UPPER = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] bytes;
+    private int length;
+
+    AsciiBuffer(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    /**
+     * @return The backing array. Only the first {@link #length()} bytes are valid.
+     */
+    byte[] array() {
+        return bytes;
+    }
+
+    int length() {
+        return length;
+    }
+
+    void reset() {
+        length = 0;
+    }
+
+    /**
+     * Zeroes the backing array and empties the buffer.
+     */
+    void wipe() {
+        Arrays.fill(bytes, (byte) 0);
+        length = 0;
+    }
+
+    /**
+     * Discards everything after the first length bytes.
+     */
+    void truncate(int length) {
+        if (length < 0 || length > this.length) {
+            throw new IndexOutOfBoundsException("length: " + length);
+        }
+        this.length = length;
+    }
+
+    AsciiBuffer append(byte[] src) {
+        return append(src, 0, src.length);
+    }
+
+    AsciiBuffer append(byte[] src, int offset, int count) {
+        // Appending from this buffer's own array must read the grown copy, since the old one is zeroed
+        boolean self = src == bytes;
+        ensureCapacity(count);
+        System.arraycopy(self ? bytes : src, offset, bytes, length, count);
+        length += count;
+        return this;
+    }
+
+    AsciiBuffer append(char c) {
+        ensureCapacity(1);
+        bytes[length++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Appends the UTF-8 bytes of a string, starting at the given index.
+     */
+    AsciiBuffer appendUtf8(String value, int from) {
+        ensureCapacity(value.length() - from);
+        for (int i = from; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                append(c);
+            } else {
+                int end = i + 1;
+                while (end < value.length() && value.charAt(end) >= 0x80) {
+                    end++;
+                }
+                append(value.substring(i, end).getBytes(StandardCharsets.UTF_8));
+                i = end - 1;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends a non-negative decimal number.
+     */
+    AsciiBuffer appendDecimal(long value) {
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /**
+     * Appends bytes as lowercase hexadecimal.
+     */
+    AsciiBuffer appendHex(byte[] src) {
+        ensureCapacity(src.length * 2);
+        for (byte b : src) {
+            bytes[length++] = HEX[(b >>> 4) & 0xf];
+            bytes[length++] = HEX[b & 0xf];
+        }
+        return this;
+    }
+
+    /**
+     * Appends the UTC date and time of an epoch second as yyyyMMdd'T'HHmmss'Z'.
+     */
+    AsciiBuffer appendDateTime(long epochSecond) {
+        long epochDay = Math.floorDiv(epochSecond, 86_400L);
+        int secondOfDay = (int) Math.floorMod(epochSecond, 86_400L);
+
+        // Civil date from days since 1970-01-01, using 400-year eras starting on March 1st
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        appendDecimal(year);
+        appendTwoDigits(month);
+        appendTwoDigits(day);
+        append('T');
+        appendTwoDigits(secondOfDay / 3600);
+        appendTwoDigits(secondOfDay / 60 % 60);
+        appendTwoDigits(secondOfDay % 60);
+        return append('Z');
+    }
+
+    private void appendTwoDigits(int value) {
+        ensureCapacity(2);
+        bytes[length++] = (byte) ('0' + value / 10);
+        bytes[length++] = (byte) ('0' + value % 10);
+    }
+
+    /**
+     * Appends a value percent-encoded the way SigV4 and the SDK encode query parameters: everything but
+     * unreserved characters (A-Z, a-z, 0-9, '-', '_', '.', '~') is encoded as UTF-8 bytes.
+     */
+    AsciiBuffer appendUriEncoded(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isUnreserved(c)) {
+                append(c);
+            } else if (c < 0x80) {
+                appendPercentEncoded(c);
+            } else {
+                int end = i + 1;
+                while (end < value.length() && value.charAt(end) >= 0x80) {
+                    end++;
+                }
+                for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    appendPercentEncoded(b & 0xff);
+                }
+                i = end - 1;
+            }
+        }
+        return this;
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == '~';
+    }
+
+    private void appendPercentEncoded(int b) {
+        ensureCapacity(3);
+        bytes[length++] = '%';
+        bytes[length++] = HEX_UPPER[b >>> 4];
+        bytes[length++] = HEX_UPPER[b & 0xf];
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private void ensureCapacity(int additional) {
+        int required = length + additional;
+        if (required > bytes.length) {
+            byte[] previous = bytes;
+            bytes = Arrays.copyOf(previous, Math.max(required, previous.length * 2));
+            // The outgrown array may hold a session token; do not leave it to the garbage collector.
+            Arrays.fill(previous, (byte) 0);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * The rendered value of an Authorization header carrying a bearer token, {@code "Bearer " + token}, as a
+ * String, as US-ASCII bytes and as a read-only ByteBuffer. All three are rendered once per minted token, so
+ * a caching generator hands out the same instance until the token is refreshed and sending the header
+ * neither concatenates nor encodes.
+ * <p>
+ * Instances are immutable, apart from the array returned by {@link #bytes()}, which is shared and must not
+ * be modified.
+ */
+public final class AuthorizationHeader {
+
+    /**
+     * The header name.
+     */
+    public static final String NAME = "Authorization";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final CachedToken token;
+    private final String value;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+
+    AuthorizationHeader(CachedToken token) {
+        this.token = token;
+        this.value = BEARER_PREFIX + token.token();
+        this.bytes = value.getBytes(StandardCharsets.US_ASCII);
+        this.buffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return The header value, {@code "Bearer " + token}.
+     */
+    public String value() {
+        return value;
+    }
+
+    /**
+     * @return The header value encoded as US-ASCII. The array is shared by all callers and must not be
+     *         modified.
+     */
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the header value encoded as US-ASCII, e.g. for writing to a channel or wrapping in a Netty
+     * ByteBuf without copying. Each call returns a new read-only view positioned at the start of the value,
+     * so callers can consume it independently.
+     *
+     * @return A read-only buffer over the header value.
+     */
+    public ByteBuffer byteBuffer() {
+        return buffer.duplicate();
+    }
+
+    /**
+     * @return The bearer token.
+     */
+    public String token() {
+        return token.token();
+    }
+
+    /**
+     * @return The instant after which the token is no longer accepted.
+     */
+    public Instant expiration() {
+        return token.expiration();
+    }
+
+    CachedToken cachedToken() {
+        return token;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorizationHeader(expiration=" + token.expiration() + ")";
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BatchTokenGenerator mints tokens for many (credentials, region, expiry) requests at once, such as when
+ * pre-minting tokens for every tenant of a multi-tenant service.
+ * <p>
+ * Requests are minted with bounded parallelism on a fork-join pool or a caller-supplied executor, and the
+ * calling thread mints alongside the workers. Workers pull requests one at a time from a shared index, so
+ * uneven request costs do not leave workers idle. All tokens of a batch are signed at the same instant,
+ * so within a batch the per-region templates and the signing keys of repeated credentials are derived
+ * once and shared. Signing keys are cached in a cache of the batch's own, dropped with the batch, so that a
+ * batch of thousands of tenants neither outgrows the cache nor evicts the keys other generators rely on.
+ * Results are returned in request order; a request that fails does not affect the others.
+ */
+public final class BatchTokenGenerator {
+
+    private final int parallelism;
+    private final Executor executor;
+    private final Clock clock;
+
+    private BatchTokenGenerator(Builder builder) {
+        int defaultParallelism = Runtime.getRuntime().availableProcessors();
+        this.parallelism = builder.parallelism != null ? builder.parallelism : defaultParallelism;
+        if (this.parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be greater than 0.");
+        }
+        this.executor = builder.executor != null ? builder.executor : ForkJoinPool.commonPool();
+        this.clock = builder.clock != null ? builder.clock : Clock.systemUTC();
+    }
+
+    /**
+     * Returns a builder instance for creating a BatchTokenGenerator.
+     *
+     * @return A new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Mints a token for every request.
+     *
+     * @param requests The requests to mint tokens for.
+     * @return One result per request, in request order.
+     * @throws NullPointerException if requests is null or contains null
+     * @throws SdkClientException if the calling thread is interrupted while waiting for the workers
+     */
+    public List<TokenResult> getTokens(Collection<TokenRequest> requests) {
+        Objects.requireNonNull(requests, "Requests must not be null");
+        return mint(requests.toArray(new TokenRequest[0]), clock.instant(), newSigningKeys());
+    }
+
+    /**
+     * Mints a token for every request of a stream. The stream is consumed before minting starts.
+     *
+     * @param requests The requests to mint tokens for.
+     * @return One result per request, in encounter order.
+     * @throws NullPointerException if requests is null or contains null
+     * @throws SdkClientException if the calling thread is interrupted while waiting for the workers
+     */
+    public List<TokenResult> getTokens(Stream<TokenRequest> requests) {
+        Objects.requireNonNull(requests, "Requests must not be null");
+        return getTokens(requests.collect(Collectors.toList()));
+    }
+
+    /**
+     * Mints a token for every request, all signed at the given instant, with signing keys from the given
+     * cache.
+     */
+    List<TokenResult> getTokens(Collection<TokenRequest> requests, Instant signingTime,
+                                SigningKeyCache signingKeys) {
+        return mint(requests.toArray(new TokenRequest[0]), signingTime, signingKeys);
+    }
+
+    /**
+     * @return A cache for the signing keys of one batch. Unbounded: a batch holds at most one signing key
+     * per distinct secret and region.
+     */
+    private static SigningKeyCache newSigningKeys() {
+        return new SigningKeyCache(Integer.MAX_VALUE);
+    }
+
+    private List<TokenResult> mint(TokenRequest[] requests, Instant signingTime, SigningKeyCache signingKeys) {
+        for (TokenRequest request : requests) {
+            Objects.requireNonNull(request, "Requests must not contain null");
+        }
+        TokenResult[] results = new TokenResult[requests.length];
+        Batch batch = new Batch(requests, results, signingTime, signingKeys);
+
+        int workers = Math.min(parallelism, requests.length) - 1;
+        List<CompletableFuture<Void>> futures = new ArrayList<>(Math.max(workers, 0));
+        for (int i = 0; i < workers; i++) {
+            try {
+                futures.add(CompletableFuture.runAsync(batch::run, executor));
+            } catch (RejectedExecutionException e) {
+                // The calling thread mints whatever the accepted workers do not
+                break;
+            }
+        }
+        try {
+            batch.run();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        } catch (InterruptedException e) {
+            batch.cancel();
+            Thread.currentThread().interrupt();
+            throw SdkClientException.create("Interrupted while minting tokens", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw SdkClientException.create("Batch worker failed", cause);
+        }
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /**
+     * The shared state of one batch. Every result slot is written by exactly one worker before the worker
+     * completes, and the completion of the workers' futures publishes the slots to the calling thread.
+     */
+    private static final class Batch {
+        private final TokenRequest[] requests;
+        private final TokenResult[] results;
+        private final Instant signingTime;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final SigningKeyCache signingKeys;
+
+        private Batch(TokenRequest[] requests, TokenResult[] results, Instant signingTime,
+                      SigningKeyCache signingKeys) {
+            this.requests = requests;
+            this.results = results;
+            this.signingTime = signingTime;
+            this.signingKeys = signingKeys;
+        }
+
+        private void run() {
+            int i;
+            while (!cancelled.get() && (i = next.getAndIncrement()) < requests.length) {
+                results[i] = mint(requests[i]);
+            }
+        }
+
+        private TokenResult mint(TokenRequest request) {
+            try {
+                Duration expiry = BedrockTokenGenerator.validateOrDefault(request.expiry());
+                return TokenResult.success(request,
+                        BedrockTokenGenerator.getToken(request.credentials(), request.region(), expiry, signingTime,
+                                signingKeys));
+            } catch (RuntimeException e) {
+                return TokenResult.failure(request, e);
+            }
+        }
+
+        private void cancel() {
+            cancelled.set(true);
+        }
+    }
+
+    /**
+     * Builder class for BatchTokenGenerator.
+     */
+    public static class Builder {
+        private Integer parallelism;
+        private Executor executor;
+        private Clock clock;
+
+        /**
+         * Sets the maximum number of threads minting at once, including the calling thread.
+         * Defaults to the number of available processors.
+         *
+         * @param parallelism The parallelism. Must be greater than 0.
+         * @return This builder.
+         */
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs the workers besides the calling thread.
+         * Defaults to the common fork-join pool.
+         *
+         * @param executor The executor.
+         * @return This builder.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Builds a BatchTokenGenerator with the configured parameters.
+         *
+         * @return A new BatchTokenGenerator instance
+         * @throws IllegalArgumentException if parallelism is not positive
+         */
+        public BatchTokenGenerator build() {
+            return new BatchTokenGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.identity.spi.AwsSessionCredentialsIdentity;
+import software.amazon.awssdk.regions.Region;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Presigns the fixed bearer token request (POST https://bedrock.amazonaws.com/?Action=CallWithBearerToken)
+ * with SigV4 query authentication, without going through the SDK's general purpose signer.
+ * <p>
+ * The output is byte-for-byte identical to the token produced through {@code AwsV4HttpSigner}: the same
+ * canonical request is signed and the query parameters are rendered in the same order. Because the request
+ * shape never changes, the canonical request, the string to sign and the URL are assembled in reusable
+ * byte buffers from fixed fragments and the region's {@link RegionTemplate}, filling in only the signing
+ * time, access key, expiry, session token and signature. Like {@link CryptoEngines}, platform threads each
+ * keep their own buffers and virtual threads borrow them from a small shared pool. Signing keys come from a
+ * {@link SigningKeyCache} and hashing reuses {@link CryptoEngines}. Before a CRaC checkpoint, the cached
+ * signing keys are dropped, the engines re-keyed, and the buffers, which hold the session token and the
+ * last signature, zeroed (see {@link CheckpointHooks}).
+ */
+final class BearerTokenPresigner {
+
+    /**
+     * System property that, when set to true, makes token minting use the SDK signer instead of this presigner.
+     */
+    static final String USE_SDK_SIGNER_PROPERTY = "software.amazon.bedrock.token.useSdkSigner";
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String ACTION = BedrockTokenGenerator.QUERY_ACTION_PARAM + "="
+            + BedrockTokenGenerator.QUERY_ACTION_PARAM_VALUE;
+    private static final String EMPTY_PAYLOAD_SHA256 =
+            "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    private static final int INITIAL_BUFFER_CAPACITY = 2048;
+    private static final int MAX_POOLED = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+
+    // Fixed parts of the canonical request, with query parameters sorted by name
+    private static final byte[] CANONICAL_REQUEST_HEAD = ascii("POST\n" + BedrockTokenGenerator.DEFAULT_PATH + "\n"
+            + ACTION + "&X-Amz-Algorithm=" + ALGORITHM + "&X-Amz-Credential=");
+    private static final byte[] CANONICAL_REQUEST_TAIL = ascii("&X-Amz-SignedHeaders=host\nhost:"
+            + BedrockTokenGenerator.DEFAULT_HOST + "\n\nhost\n" + EMPTY_PAYLOAD_SHA256);
+    private static final byte[] STRING_TO_SIGN_HEAD = ascii(ALGORITHM + "\n");
+
+    // Fixed parts of the presigned URL, in the parameter order produced by the SDK signer
+    private static final byte[] URL_HEAD = ascii(BedrockTokenGenerator.DEFAULT_HOST
+            + BedrockTokenGenerator.DEFAULT_PATH + "?" + ACTION);
+    private static final byte[] URL_ALGORITHM_AND_DATE = ascii("&X-Amz-Algorithm=" + ALGORITHM + "&X-Amz-Date=");
+    private static final byte[] URL_HEADERS_AND_CREDENTIAL = ascii("&X-Amz-SignedHeaders=host&X-Amz-Credential=");
+    private static final byte[] URL_SIGNATURE = ascii("&X-Amz-Signature=");
+    private static final byte[] TOKEN_VERSION = ascii(BedrockTokenGenerator.TOKEN_VERSION);
+
+    private static final byte[] DATE = ascii("&X-Amz-Date=");
+    private static final byte[] EXPIRES = ascii("&X-Amz-Expires=");
+    private static final byte[] SECURITY_TOKEN = ascii("&X-Amz-Security-Token=");
+    private static final byte[] CREDENTIAL_SEPARATOR = ascii("%2F");
+    private static final int DATE_TIME_LENGTH = 16;
+    private static final int DATE_STAMP_LENGTH = 8;
+
+    private static final SigningKeyCache SIGNING_KEYS = new SigningKeyCache();
+    private static final Set<PresignRequest> LIVE_REQUESTS = Collections.newSetFromMap(new WeakHashMap<>());
+    private static final ThreadLocal<PresignRequest> PER_THREAD =
+            ThreadLocal.withInitial(() -> PresignRequest.create(false));
+    private static final Queue<PresignRequest> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOL_SIZE = new AtomicInteger();
+    private static final boolean ENABLED = !Boolean.getBoolean(USE_SDK_SIGNER_PROPERTY) && algorithmsAvailable();
+    private static final CheckpointHooks.Hook CHECKPOINT_HOOK = new CheckpointHooks.Hook() {
+        @Override
+        public void beforeCheckpoint() {
+            SIGNING_KEYS.wipe();
+            wipeRequests();
+            CryptoEngines.wipeAll();
+        }
+
+        @Override
+        public void afterRestore() {
+            SIGNING_KEYS.rotateFingerprintKey();
+        }
+    };
+
+    static {
+        CheckpointHooks.register(CHECKPOINT_HOOK);
+    }
+
+    private BearerTokenPresigner() {
+    }
+
+    /**
+     * @return true if tokens should be minted with this presigner rather than the SDK signer.
+     */
+    static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Mints a bearer token.
+     *
+     * @param credentials AWS credentials.
+     * @param region The AWS region.
+     * @param expirySeconds Token expiration in seconds.
+     * @param epochSecond The signing time in seconds since the epoch.
+     * @return A bearer token string.
+     */
+    static String presign(AwsCredentials credentials, Region region, long expirySeconds, long epochSecond) {
+        return presign(credentials, region, expirySeconds, epochSecond, SIGNING_KEYS);
+    }
+
+    /**
+     * Mints a bearer token, looking up and caching its signing key in the given cache instead of the shared
+     * one.
+     *
+     * @param credentials AWS credentials.
+     * @param region The AWS region.
+     * @param expirySeconds Token expiration in seconds.
+     * @param epochSecond The signing time in seconds since the epoch.
+     * @param signingKeys The signing key cache.
+     * @return A bearer token string.
+     */
+    static String presign(AwsCredentials credentials, Region region, long expirySeconds, long epochSecond,
+                          SigningKeyCache signingKeys) {
+        PresignRequest request = acquireRequest();
+        try {
+            // Held across the stages, so that a checkpoint cannot wipe the buffers in the middle of a presign.
+            synchronized (request) {
+                request.build(credentials, RegionTemplate.of(region), expirySeconds, epochSecond);
+                request.sign(credentials.secretAccessKey(), signingKeys);
+                return TokenEncoding.encode(request.renderUrl());
+            }
+        } finally {
+            request.release();
+        }
+    }
+
+    /**
+     * Derives the signing keys of several regions ahead of presigning, sharing the date key between them.
+     *
+     * @param credentials AWS credentials.
+     * @param regions The AWS regions.
+     * @param epochSecond The signing time in seconds since the epoch.
+     */
+    static void prefetchSigningKeys(AwsCredentials credentials, Collection<Region> regions, long epochSecond) {
+        String dateStamp = new AsciiBuffer(DATE_TIME_LENGTH).appendDateTime(epochSecond).toString()
+                .substring(0, DATE_STAMP_LENGTH);
+        List<String> regionIds = new ArrayList<>(regions.size());
+        for (Region region : regions) {
+            regionIds.add(region.id());
+        }
+        CryptoEngines engines = CryptoEngines.acquire();
+        try {
+            SIGNING_KEYS.prefetch(engines, credentials.secretAccessKey(), dateStamp, regionIds);
+        } finally {
+            engines.release();
+        }
+    }
+
+    /**
+     * @return The signing key cache shared by all presigns that do not bring their own.
+     */
+    static SigningKeyCache signingKeys() {
+        return SIGNING_KEYS;
+    }
+
+    /**
+     * Returns a reusable request, for running the presigning stages individually. Callers must
+     * {@link PresignRequest#release()} it.
+     *
+     * @return The current thread's own request on a platform thread, one borrowed from the pool on a virtual
+     * thread.
+     */
+    static PresignRequest acquireRequest() {
+        if (CryptoEngines.isVirtualThread()) {
+            return acquirePooledRequest();
+        }
+        return PER_THREAD.get();
+    }
+
+    static PresignRequest acquirePooledRequest() {
+        PresignRequest request = POOL.poll();
+        if (request != null) {
+            POOL_SIZE.decrementAndGet();
+            return request;
+        }
+        return PresignRequest.create(true);
+    }
+
+    /**
+     * Zeroes the buffers of every request, including those of idle threads and pooled ones.
+     */
+    static void wipeRequests() {
+        List<PresignRequest> live;
+        synchronized (LIVE_REQUESTS) {
+            live = new ArrayList<>(LIVE_REQUESTS);
+        }
+        for (PresignRequest request : live) {
+            request.wipe();
+        }
+    }
+
+    private static boolean algorithmsAvailable() {
+        try {
+            MessageDigest.getInstance(CryptoEngines.DIGEST_ALGORITHM);
+            Mac.getInstance(CryptoEngines.HMAC_ALGORITHM);
+            return true;
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * The per-thread state of a presign, reused across mints. Presigning runs in three stages:
+     * {@link #build} writes the canonical request and the start of the string to sign, {@link #sign}
+     * completes the string to sign and computes the signature, and {@link #renderUrl} writes the URL.
+     */
+    static final class PresignRequest {
+        private final AsciiBuffer canonicalRequest = new AsciiBuffer(INITIAL_BUFFER_CAPACITY);
+        private final AsciiBuffer stringToSign = new AsciiBuffer(256);
+        private final AsciiBuffer url = new AsciiBuffer(INITIAL_BUFFER_CAPACITY);
+        private RegionTemplate template;
+        private long expirySeconds;
+        private int dateTimeOffset;
+        private int stringToSignPrefixLength;
+        private int credentialOffset;
+        private int credentialLength;
+        private int sessionTokenOffset;
+        private int sessionTokenLength;
+        private byte[] signature;
+        private long epochDay = Long.MIN_VALUE;
+        private String dateStamp;
+
+        private final boolean pooled;
+
+        private PresignRequest(boolean pooled) {
+            this.pooled = pooled;
+        }
+
+        /**
+         * Creates a request and registers it, weakly, for {@link #wipeRequests()}. Runs once per platform
+         * thread and on pool misses, not on every presign.
+         */
+        private static PresignRequest create(boolean pooled) {
+            PresignRequest request = new PresignRequest(pooled);
+            synchronized (LIVE_REQUESTS) {
+                LIVE_REQUESTS.add(request);
+            }
+            return request;
+        }
+
+        /**
+         * Returns a pooled request to the pool. Does nothing for per-thread requests.
+         */
+        void release() {
+            if (!pooled) {
+                return;
+            }
+            if (POOL_SIZE.incrementAndGet() <= MAX_POOLED) {
+                POOL.offer(this);
+            } else {
+                POOL_SIZE.decrementAndGet();
+            }
+        }
+
+        /**
+         * Writes the canonical request and the string to sign up to the canonical request hash.
+         *
+         * @param credentials AWS credentials.
+         * @param template The region's template.
+         * @param expirySeconds Token expiration in seconds.
+         * @param epochSecond The signing time in seconds since the epoch.
+         */
+        void build(AwsCredentials credentials, RegionTemplate template, long expirySeconds, long epochSecond) {
+            this.template = template;
+            this.expirySeconds = expirySeconds;
+            String sessionToken = credentials instanceof AwsSessionCredentialsIdentity
+                    ? ((AwsSessionCredentialsIdentity) credentials).sessionToken()
+                    : null;
+
+            // The date and time of the signing time are copied from the string to sign
+            stringToSign.reset();
+            stringToSign.append(STRING_TO_SIGN_HEAD);
+            dateTimeOffset = stringToSign.length();
+            stringToSign.appendDateTime(epochSecond)
+                        .append('\n')
+                        .append(stringToSign.array(), dateTimeOffset, DATE_STAMP_LENGTH)
+                        .append(template.scopeSuffix());
+            stringToSignPrefixLength = stringToSign.length();
+            updateDateStamp(epochSecond);
+
+            canonicalRequest.reset();
+            canonicalRequest.append(CANONICAL_REQUEST_HEAD);
+            credentialOffset = canonicalRequest.length();
+            canonicalRequest.appendUriEncoded(credentials.accessKeyId())
+                            .append(CREDENTIAL_SEPARATOR)
+                            .append(stringToSign.array(), dateTimeOffset, DATE_STAMP_LENGTH)
+                            .append(template.encodedScopeSuffix());
+            credentialLength = canonicalRequest.length() - credentialOffset;
+            canonicalRequest.append(DATE)
+                            .append(stringToSign.array(), dateTimeOffset, DATE_TIME_LENGTH)
+                            .append(EXPIRES)
+                            .appendDecimal(expirySeconds);
+            sessionTokenOffset = -1;
+            sessionTokenLength = 0;
+            if (sessionToken != null) {
+                canonicalRequest.append(SECURITY_TOKEN);
+                sessionTokenOffset = canonicalRequest.length();
+                canonicalRequest.appendUriEncoded(sessionToken);
+                sessionTokenLength = canonicalRequest.length() - sessionTokenOffset;
+            }
+            canonicalRequest.append(CANONICAL_REQUEST_TAIL);
+        }
+
+        /**
+         * Hashes the canonical request and signs the string to sign. May be repeated after a single build.
+         *
+         * @param secretAccessKey The secret access key of the credentials the request was built with.
+         */
+        void sign(String secretAccessKey) {
+            sign(secretAccessKey, SIGNING_KEYS);
+        }
+
+        /**
+         * Like {@link #sign(String)}, looking up the signing key in the given cache.
+         *
+         * @param secretAccessKey The secret access key of the credentials the request was built with.
+         * @param signingKeys The signing key cache.
+         */
+        void sign(String secretAccessKey, SigningKeyCache signingKeys) {
+            stringToSign.truncate(stringToSignPrefixLength);
+            CryptoEngines engines = CryptoEngines.acquire();
+            try {
+                stringToSign.appendHex(engines.sha256(canonicalRequest.array(), canonicalRequest.length()));
+                byte[] signingKey = signingKeys.signingKey(engines, secretAccessKey, dateStamp,
+                        template.regionId());
+                signature = engines.hmacSha256(signingKey, stringToSign.array(), stringToSign.length());
+            } finally {
+                engines.release();
+            }
+        }
+
+        /**
+         * Writes the presigned URL, without the scheme, in the parameter order produced by the SDK signer.
+         *
+         * @return The URL, followed by the token version.
+         */
+        AsciiBuffer renderUrl() {
+            url.reset();
+            url.append(URL_HEAD);
+            if (sessionTokenOffset >= 0) {
+                url.append(SECURITY_TOKEN)
+                   .append(canonicalRequest.array(), sessionTokenOffset, sessionTokenLength);
+            }
+            url.append(URL_ALGORITHM_AND_DATE)
+               .append(stringToSign.array(), dateTimeOffset, DATE_TIME_LENGTH)
+               .append(URL_HEADERS_AND_CREDENTIAL)
+               .append(canonicalRequest.array(), credentialOffset, credentialLength)
+               .append(EXPIRES)
+               .appendDecimal(expirySeconds)
+               .append(URL_SIGNATURE)
+               .appendHex(signature)
+               .append(TOKEN_VERSION);
+            return url;
+        }
+
+        /**
+         * Zeroes the canonical request, string to sign and URL, which contain the session token and the
+         * signature. The request is rebuilt on its next use.
+         */
+        synchronized void wipe() {
+            canonicalRequest.wipe();
+            stringToSign.wipe();
+            url.wipe();
+            if (signature != null) {
+                Arrays.fill(signature, (byte) 0);
+                signature = null;
+            }
+        }
+
+        /**
+         * Keeps the date stamp of the signing time, reusing the last one while the date does not change.
+         */
+        private void updateDateStamp(long epochSecond) {
+            long day = Math.floorDiv(epochSecond, 86_400L);
+            if (day != epochDay) {
+                dateStamp = new String(stringToSign.array(), dateTimeOffset, DATE_STAMP_LENGTH,
+                        StandardCharsets.US_ASCII);
+                epochDay = day;
+            }
+        }
+    }
+}
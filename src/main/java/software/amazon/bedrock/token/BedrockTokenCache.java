@@ -0,0 +1,284 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * BedrockTokenCache is a bounded cache in front of
+ * {@link BedrockTokenGenerator#getToken(AwsCredentials, Region, Duration)} for callers that mint tokens
+ * for many different credentials, such as multi-tenant gateways.
+ * Tokens are keyed by credential identity, region and expiry, and are reused until they reach the refresh
+ * threshold. An expired entry is dropped as soon as it is read. When the cache grows past its maximum size,
+ * the remaining expired entries are dropped first and then the least frequently used ones, with access
+ * frequencies decaying over time so that formerly hot entries do not stay resident forever.
+ * Before a CRaC checkpoint all cached tokens are dropped, so a restored process mints fresh ones.
+ */
+public final class BedrockTokenCache {
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 1_000;
+    private static final int MAX_FREQUENCY = 1 << 16;
+
+    private final ConcurrentMap<TokenCacheKey, Entry> entries = new ConcurrentHashMap<>();
+    private final SingleFlight<TokenCacheKey, CachedToken> mints;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final long maximumSize;
+    private final Duration refreshThreshold;
+    private final Clock clock;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+    private final CheckpointHooks.Hook checkpointHook = new CheckpointHooks.Hook() {
+        @Override
+        public void beforeCheckpoint() {
+            entries.clear();
+        }
+
+        @Override
+        public void afterRestore() {
+        }
+    };
+
+    private BedrockTokenCache(Builder builder) {
+        if (builder.maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be greater than 0.");
+        }
+        this.maximumSize = builder.maximumSize;
+        this.refreshThreshold = BedrockTokenGenerator.nonNegativeOrDefault(builder.refreshThreshold,
+                BedrockTokenGenerator.DEFAULT_REFRESH_THRESHOLD, "Refresh threshold");
+        this.mints = new SingleFlight<>(BedrockTokenGenerator.nonNegativeOrDefault(builder.mintTimeout,
+                BedrockTokenGenerator.DEFAULT_MINT_TIMEOUT, "Mint timeout"));
+        this.clock = builder.clock != null ? builder.clock : Clock.systemUTC();
+        CheckpointHooks.register(checkpointHook);
+    }
+
+    /**
+     * Returns a cached bearer token for the given credentials, region and expiry, minting one if there is
+     * none or the cached one is due for refresh. Concurrent misses for the same key share a single mint.
+     *
+     * @param credentials AWS credentials.
+     * @param region The AWS region.
+     * @param expiry Token expiration duration (max 12 hours). If null, defaults to 12 hours.
+     * @return A bearer token string.
+     * @throws NullPointerException if credentials or region are null
+     * @throws IllegalArgumentException if expiry is less than or equal to 0 or greater than 12 hours
+     * @throws SdkClientException if waiting for a concurrent mint of the same token timed out
+     */
+    public String getToken(AwsCredentials credentials, Region region, Duration expiry) {
+        Objects.requireNonNull(credentials, "Credentials must not be null");
+        Objects.requireNonNull(region, "Region must not be null");
+        Duration validExpiry = BedrockTokenGenerator.validateOrDefault(expiry);
+
+        TokenCacheKey key = TokenCacheKey.of(credentials, region, validExpiry);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            long now = clock.millis();
+            if (entry.token.isFresh(now)) {
+                entry.recordAccess();
+                hitCount.increment();
+                return entry.token.token();
+            }
+            if (!entry.token.isUnexpired(now) && entries.remove(key, entry)) {
+                expirationCount.increment();
+            }
+        }
+
+        missCount.increment();
+        return mints.execute(key, () -> mintAndStore(key, credentials, region, validExpiry)).token();
+    }
+
+    /**
+     * @return A snapshot of the cache statistics.
+     */
+    public TokenCacheStats stats() {
+        return new TokenCacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), expirationCount.sum(),
+                entries.size());
+    }
+
+    /**
+     * Removes all cached tokens. Statistics are kept.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private CachedToken mintAndStore(TokenCacheKey key, AwsCredentials credentials, Region region, Duration expiry) {
+        Entry existing = entries.get(key);
+        if (existing != null && existing.token.isFresh(clock.millis())) {
+            return existing.token;
+        }
+
+        CachedToken minted = BedrockTokenGenerator.mintToken(credentials, region, expiry, clock.instant(),
+                refreshThreshold);
+        // Replace whatever entry is current, not the one read above, which may have been evicted since
+        entries.compute(key, (k, current) -> new Entry(minted, current != null ? current.frequency : 1));
+        if (entries.size() > maximumSize) {
+            evict();
+        }
+        return minted;
+    }
+
+    /**
+     * Drops expired entries, then the least frequently used entries until the cache is at most 90% full,
+     * and finally halves all access frequencies so that past popularity fades.
+     * Evicting in batches keeps the cost of the full scan amortized over many inserts.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = clock.millis();
+            List<Candidate> candidates = new ArrayList<>(entries.size());
+            for (Map.Entry<TokenCacheKey, Entry> mapEntry : entries.entrySet()) {
+                Entry entry = mapEntry.getValue();
+                if (!entry.token.isUnexpired(now)) {
+                    if (entries.remove(mapEntry.getKey(), entry)) {
+                        expirationCount.increment();
+                    }
+                } else {
+                    candidates.add(new Candidate(mapEntry.getKey(), entry));
+                }
+            }
+
+            long target = maximumSize - maximumSize / 10;
+            long excess = entries.size() - target;
+            if (excess > 0) {
+                candidates.sort(Comparator.comparingInt(candidate -> candidate.frequency));
+                for (int i = 0; i < candidates.size() && excess > 0; i++) {
+                    Candidate victim = candidates.get(i);
+                    if (entries.remove(victim.key, victim.entry)) {
+                        evictionCount.increment();
+                        excess--;
+                    }
+                }
+            }
+
+            for (Entry entry : entries.values()) {
+                entry.frequency >>>= 1;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a builder instance for creating a BedrockTokenCache.
+     *
+     * @return A new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static final class Entry {
+        private final CachedToken token;
+        // Updated without synchronization; lost increments only make the frequency approximate.
+        private volatile int frequency;
+
+        private Entry(CachedToken token, int frequency) {
+            this.token = token;
+            this.frequency = frequency;
+        }
+
+        private void recordAccess() {
+            int current = frequency;
+            if (current < MAX_FREQUENCY) {
+                frequency = current + 1;
+            }
+        }
+    }
+
+    /**
+     * Eviction candidate with its access frequency captured once, so that concurrent accesses cannot change
+     * the sort order while sorting.
+     */
+    private static final class Candidate {
+        private final TokenCacheKey key;
+        private final Entry entry;
+        private final int frequency;
+
+        private Candidate(TokenCacheKey key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+            this.frequency = entry.frequency;
+        }
+    }
+
+    /**
+     * Builder class for BedrockTokenCache.
+     */
+    public static class Builder {
+        private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private Duration refreshThreshold;
+        private Duration mintTimeout;
+        private Clock clock;
+
+        /**
+         * Sets the maximum number of cached tokens. Defaults to 1000.
+         *
+         * @param maximumSize The maximum size. Must be greater than 0.
+         * @return This builder.
+         */
+        public Builder maximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets how long before expiry a cached token is replaced. Defaults to 5 minutes.
+         *
+         * @param refreshThreshold The refresh threshold. Must not be negative.
+         * @return This builder.
+         */
+        public Builder refreshThreshold(Duration refreshThreshold) {
+            this.refreshThreshold = refreshThreshold;
+            return this;
+        }
+
+        /**
+         * Sets how long a caller waits for a mint of the same token already started by another caller.
+         * Defaults to 30 seconds.
+         *
+         * @param mintTimeout The mint timeout. Must not be negative.
+         * @return This builder.
+         */
+        public Builder mintTimeout(Duration mintTimeout) {
+            this.mintTimeout = mintTimeout;
+            return this;
+        }
+
+        Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Builds a BedrockTokenCache with the configured parameters.
+         *
+         * @return A new BedrockTokenCache instance
+         * @throws IllegalArgumentException if maximum size is not positive, or if the refresh threshold or
+         *                                  mint timeout is negative
+         */
+        public BedrockTokenCache build() {
+            return new BedrockTokenCache(this);
+        }
+    }
+}
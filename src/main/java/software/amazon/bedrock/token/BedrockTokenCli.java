@@ -0,0 +1,351 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.providers.AwsRegionProvider;
+import software.amazon.awssdk.regions.providers.DefaultAwsRegionProviderChain;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.Locale;
+
+/**
+ * Command-line entry point that mints bearer tokens for shell scripts and non-JVM tools.
+ * <p>
+ * By default a single token is printed to standard output, or written to the file given with --output.
+ * With --watch, the process stays resident and rewrites the file whenever the token reaches its refresh
+ * point, so readers always find a valid token without starting a JVM per token. The file is replaced
+ * atomically by writing an owner-only temporary file next to it and renaming it, so readers never see a
+ * partially written token. Failed refreshes are retried with exponential backoff while the previous token
+ * stays in place. If the previous token expires before a refresh succeeds, the file is deleted and the
+ * process exits with status 1, so readers find no token rather than an expired one. Progress and errors are
+ * reported on standard error; tokens never are.
+ * <p>
+ * Exit status: 0 on success, 1 if a token could not be minted or written, or the region could not be
+ * determined, 2 for invalid arguments.
+ */
+public final class BedrockTokenCli {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILURE = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 1_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+    private static final long MIN_WAIT_MILLIS = 100;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: BedrockTokenCli [options]",
+            "",
+            "Mints a bearer token for Amazon Bedrock and prints it, or writes it to a file.",
+            "",
+            "Options:",
+            "  --region <region>             AWS region (default: from the default region provider chain)",
+            "  --profile <profile>           Credentials and region profile (default: default credentials chain)",
+            "  --expiry <duration>           Token lifetime, max 12h, e.g. 3600, 90m, 12h or PT1H (default: 12h)",
+            "  --output <file>               Write the token to this file atomically instead of printing it",
+            "  --watch                       Stay running and rewrite --output before each token expires",
+            "  --refresh-threshold <duration> How long before expiry the token is replaced (default: 5m)",
+            "  --help                        Show this help");
+
+    private BedrockTokenCli() {
+    }
+
+    /**
+     * Runs the command line.
+     *
+     * @param args The command-line arguments.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err, null));
+    }
+
+    /**
+     * @param credentialsProvider Overrides the credentials provider, or null to derive it from the arguments.
+     * @return The exit status.
+     */
+    static int run(String[] args, PrintStream out, PrintStream err, AwsCredentialsProvider credentialsProvider) {
+        Options options;
+        BedrockTokenGenerator created;
+        try {
+            options = Options.parse(args);
+            if (options.help) {
+                out.println(USAGE);
+                return EXIT_OK;
+            }
+            created = options.generator(credentialsProvider);
+        } catch (IllegalArgumentException e) {
+            err.println("Error: " + e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        } catch (SdkClientException e) {
+            err.println("Error: " + e.getMessage());
+            return EXIT_FAILURE;
+        }
+
+        // Closed on every exit, including the interrupt that ends --watch
+        try (BedrockTokenGenerator generator = created) {
+            if (options.watch) {
+                return watch(generator, options.output, err, Clock.systemUTC());
+            }
+            String token = generator.getToken();
+            if (options.output != null) {
+                writeAtomically(options.output, token);
+            } else {
+                out.println(token);
+            }
+            return EXIT_OK;
+        } catch (SdkClientException e) {
+            err.println("Error: Unable to mint token: " + e.getMessage());
+            return EXIT_FAILURE;
+        } catch (IOException | UncheckedIOException e) {
+            err.println("Error: Unable to write " + options.output + ": " + e.getMessage());
+            return EXIT_FAILURE;
+        }
+    }
+
+    /**
+     * Writes the current token to the file and rewrites it at each refresh point, until interrupted. Failures
+     * are retried with exponential backoff while the previously written token stays in place, until it
+     * expires: the file is then deleted rather than left serving an expired token.
+     *
+     * @return EXIT_OK once interrupted, or EXIT_FAILURE once the written token expired without a refresh.
+     */
+    static int watch(BedrockTokenGenerator generator, Path output, PrintStream err, Clock clock) {
+        CachedToken written = null;
+        long retryDelayMillis = INITIAL_RETRY_DELAY_MILLIS;
+        while (true) {
+            long waitMillis;
+            try {
+                CachedToken token = generator.getCachedToken();
+                if (token != written) {
+                    writeAtomically(output, token.token());
+                    written = token;
+                    err.println(Instant.now(clock) + " Wrote token expiring at " + token.expiration() + " to "
+                            + output);
+                }
+                waitMillis = Math.max(MIN_WAIT_MILLIS, token.refreshAtMillis() - clock.millis());
+                retryDelayMillis = INITIAL_RETRY_DELAY_MILLIS;
+            } catch (SdkClientException | IOException | UncheckedIOException e) {
+                long now = clock.millis();
+                if (written != null && !written.isUnexpired(now)) {
+                    err.println(Instant.now(clock) + " Unable to refresh token before it expired, deleting "
+                            + output + ": " + e.getMessage());
+                    deleteExpired(output, err);
+                    return EXIT_FAILURE;
+                }
+                waitMillis = retryDelayMillis;
+                if (written != null) {
+                    // Wake up when the written token expires, to delete it if the refresh still fails
+                    waitMillis = Math.min(waitMillis,
+                            Math.max(MIN_WAIT_MILLIS, written.expiration().toEpochMilli() - now));
+                }
+                retryDelayMillis = Math.min(2 * retryDelayMillis, MAX_RETRY_DELAY_MILLIS);
+                err.println(Instant.now(clock) + " Unable to refresh token, retrying in " + waitMillis + " ms: "
+                        + e.getMessage());
+            }
+            try {
+                Thread.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return EXIT_OK;
+            }
+        }
+    }
+
+    private static void deleteExpired(Path output, PrintStream err) {
+        try {
+            Files.deleteIfExists(output);
+        } catch (IOException e) {
+            err.println("Error: Unable to delete " + output + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the file with the token by writing an owner-only temporary file in the same directory and
+     * renaming it over the file, so readers see either the previous or the new token, never a partial one.
+     */
+    static void writeAtomically(Path file, String token) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path directory = target.getParent();
+        String prefix = "." + target.getFileName() + ".";
+        Path temporary = FileSystems.getDefault().supportedFileAttributeViews().contains("posix")
+                ? Files.createTempFile(directory, prefix, ".tmp", PosixFilePermissions.asFileAttribute(
+                        EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE)))
+                : Files.createTempFile(directory, prefix, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer bytes = ByteBuffer.wrap(token.getBytes(StandardCharsets.US_ASCII));
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Parses a duration given as seconds ("3600"), with a unit suffix ("90s", "30m", "12h") or in ISO-8601
+     * format ("PT1H").
+     *
+     * @throws IllegalArgumentException if the value is not a valid duration
+     */
+    static Duration parseDuration(String option, String value) {
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        try {
+            if (trimmed.startsWith("p")) {
+                return Duration.parse(trimmed);
+            }
+            if (trimmed.endsWith("h")) {
+                return Duration.ofHours(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+            }
+            if (trimmed.endsWith("m")) {
+                return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+            }
+            if (trimmed.endsWith("s")) {
+                return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+            }
+            return Duration.ofSeconds(Long.parseLong(trimmed));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid duration for " + option + ": " + value);
+        }
+    }
+
+    private static final class Options {
+        private Region region;
+        private String profile;
+        private Duration expiry;
+        private Duration refreshThreshold;
+        private Path output;
+        private boolean watch;
+        private boolean help;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                String value = null;
+                int equals = name.indexOf('=');
+                if (name.startsWith("--") && equals > 0) {
+                    value = name.substring(equals + 1);
+                    name = name.substring(0, equals);
+                }
+                switch (name) {
+                    case "--help":
+                    case "-h":
+                        options.help = true;
+                        break;
+                    case "--watch":
+                        options.watch = true;
+                        break;
+                    case "--region":
+                    case "--profile":
+                    case "--expiry":
+                    case "--refresh-threshold":
+                    case "--output":
+                        if (value == null) {
+                            if (i + 1 >= args.length) {
+                                throw new IllegalArgumentException("Missing value for " + name);
+                            }
+                            value = args[++i];
+                        }
+                        options.set(name, value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + name);
+                }
+            }
+            if (options.watch && options.output == null && !options.help) {
+                throw new IllegalArgumentException("--watch requires --output");
+            }
+            return options;
+        }
+
+        private void set(String name, String value) {
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("Missing value for " + name);
+            }
+            switch (name) {
+                case "--region":
+                    region = Region.of(value);
+                    break;
+                case "--profile":
+                    profile = value;
+                    break;
+                case "--expiry":
+                    expiry = parseDuration(name, value);
+                    break;
+                case "--refresh-threshold":
+                    refreshThreshold = parseDuration(name, value);
+                    break;
+                default:
+                    output = Paths.get(value);
+                    break;
+            }
+        }
+
+        /**
+         * @throws SdkClientException if no region was given and none could be resolved
+         */
+        BedrockTokenGenerator generator(AwsCredentialsProvider credentialsProvider) {
+            BedrockTokenGenerator.Builder builder = BedrockTokenGenerator.builder()
+                    .region(region != null ? region : defaultRegion())
+                    .expiry(expiry)
+                    .refreshThreshold(refreshThreshold)
+                    .cacheEnabled(watch);
+            if (credentialsProvider != null) {
+                builder.credentialsProvider(credentialsProvider);
+            } else if (profile != null) {
+                builder.credentialsProvider(ProfileCredentialsProvider.create(profile));
+            }
+            return builder.build();
+        }
+
+        /**
+         * Resolves the region from the default region provider chain, reading the profile if one was given.
+         */
+        private Region defaultRegion() {
+            AwsRegionProvider provider = profile != null
+                    ? DefaultAwsRegionProviderChain.builder().profileName(profile).build()
+                    : new DefaultAwsRegionProviderChain();
+            Region resolved;
+            try {
+                resolved = provider.getRegion();
+            } catch (SdkClientException e) {
+                throw SdkClientException.create(
+                        "Unable to determine the region, use --region: " + e.getMessage(), e);
+            }
+            if (resolved == null) {
+                throw SdkClientException.create("Unable to determine the region, use --region");
+            }
+            return resolved;
+        }
+    }
+}
@@ -6,9 +6,12 @@ package software.amazon.bedrock.token;
 
 import software.amazon.awssdk.auth.credentials.AwsCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.CredentialUtils;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.identity.spi.AwsCredentialsIdentity;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.providers.AwsRegionProvider;
 import software.amazon.awssdk.regions.providers.DefaultAwsRegionProviderChain;
 import software.amazon.awssdk.http.SdkHttpFullRequest;
 import software.amazon.awssdk.http.SdkHttpRequest;
@@ -17,76 +20,338 @@ import software.amazon.awssdk.http.auth.aws.signer.AwsV4FamilyHttpSigner;
 import software.amazon.awssdk.http.auth.aws.signer.AwsV4HttpSigner;
 import software.amazon.awssdk.http.auth.spi.signer.SignRequest;
 
-import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.Duration;
-import java.util.Base64;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * BedrockTokenGenerator provides a lightweight utility to generate short-lived AWS Bearer tokens
  * for use with the Amazon Bedrock API.
  */
-public class BedrockTokenGenerator {
+public class BedrockTokenGenerator implements AutoCloseable {
 
     private static final String PROTOCOL = "https";
-    private static final String DEFAULT_HOST = "bedrock.amazonaws.com";
+    static final String DEFAULT_HOST = "bedrock.amazonaws.com";
     private static final String HOST_HEADER = "host";
-    private static final String DEFAULT_PATH = "/";
-    private static final String QUERY_ACTION_PARAM = "Action";
-    private static final String QUERY_ACTION_PARAM_VALUE = "CallWithBearerToken";
-    private static final String SERVICE_SIGNING_NAME = "bedrock";
-    private static final String AUTH_PREFIX = "bedrock-api-key-";
-    private static final String TOKEN_VERSION = "&Version=1";
+    static final String DEFAULT_PATH = "/";
+    static final String QUERY_ACTION_PARAM = "Action";
+    static final String QUERY_ACTION_PARAM_VALUE = "CallWithBearerToken";
+    static final String SERVICE_SIGNING_NAME = "bedrock";
+    static final String AUTH_PREFIX = "bedrock-api-key-";
+    static final String TOKEN_VERSION = "&Version=1";
     private static final Duration DEFAULT_EXPIRY = Duration.ofHours(12);
     private static final Duration MAX_EXPIRY = Duration.ofHours(12);
-    private static final String HTTPS_PREFIX = "https://";
-    private final Region region;
-    private final AwsCredentialsProvider credentialsProvider;
+    static final Duration DEFAULT_REFRESH_THRESHOLD = Duration.ofMinutes(5);
+    private static final Duration DEFAULT_REFRESH_LEAD_TIME = Duration.ofMinutes(1);
+    private static final Duration DEFAULT_REFRESH_JITTER = Duration.ofSeconds(30);
+    static final Duration DEFAULT_MINT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration MIN_REJECTED_TOKEN_AGE = Duration.ofSeconds(10);
+    static final String HTTPS_PREFIX = "https://";
+    private final LazyValue<Region> region;
+    private final LazyValue<AwsCredentialsProvider> credentialsProvider;
     private final Duration expiry;
+    private final Duration refreshThreshold;
+    private final Clock clock;
+    private final TokenMetrics metrics;
+    private final TokenCache tokenCache;
 
     /**
      * Default constructor for who will directly call getToken(AwsCredentials, String).
      */
     public BedrockTokenGenerator() {
-        this.region = null;
-        this.credentialsProvider = null;
+        this.region = LazyValue.of(null);
+        this.credentialsProvider = LazyValue.of(null);
         this.expiry = DEFAULT_EXPIRY;
+        this.refreshThreshold = DEFAULT_REFRESH_THRESHOLD;
+        this.clock = Clock.systemUTC();
+        this.metrics = TokenMetrics.noOp();
+        this.tokenCache = null;
     }
 
     /**
      * Private constructor used by the Builder
      * Initializes region, credentials provider, and expiry duration with defaults if not explicitly provided.
+     * Region: if null, resolves from DefaultAwsRegionProviderChain.
+     * Credentials provider: if null, uses DefaultCredentialsProvider.
+     * With lazy defaults, the region and credentials provider defaults are resolved on first use instead.
+     * Expiry: must be greater than 0 and less than or equal to 12 hours. If null, defaults to 12 hours.
      *
-     * @param region The AWS region. If null, resolves from DefaultAwsRegionProviderChain.
-     * @param provider The AWS credentials provider. If null, uses DefaultCredentialsProvider.
-     * @param expiry Token expiration duration. Must be greater than 0 and less than or equal to 12 hours.
-     *               If null or invalid, defaults to 12 hours.
+     * @param builder The builder holding the configuration.
      *
      * @throws NullPointerException if region or credentials provider cannot be resolved from defaults
      * @throws SdkClientException if default region or credentials provider cannot be initialized
-     * @throws IllegalArgumentException if expiry is less than or equal to 0 or greater than 12 hours
+     * @throws IllegalArgumentException if expiry is less than or equal to 0 or greater than 12 hours,
+     *                                  or if the refresh threshold, lead time, jitter or mint timeout is negative
      */
-    private BedrockTokenGenerator(Region region, AwsCredentialsProvider provider, Duration expiry) {
-        this.region = region != null ? region : new DefaultAwsRegionProviderChain().getRegion();
-        this.credentialsProvider = provider != null ? provider : DefaultCredentialsProvider.create();
-        
-        Objects.requireNonNull(this.region, "Region must not be null and could not be obtained from default provider");
-        Objects.requireNonNull(this.credentialsProvider, "CredentialsProvider must not be null and" +
-                " could not be initialized from defaults");
-        
-        this.expiry = validateOrDefault(expiry);
+    private BedrockTokenGenerator(Builder builder) {
+        AwsRegionProvider regionProvider = builder.regionProvider != null
+                ? builder.regionProvider : new DefaultAwsRegionProviderChain();
+        this.region = builder.region != null ? LazyValue.of(builder.region) : LazyValue.lazily(
+                regionProvider::getRegion, "Region must not be null and could not be obtained from default provider");
+        this.credentialsProvider = builder.provider != null ? LazyValue.of(builder.provider) : LazyValue.lazily(
+                DefaultCredentialsProvider::create,
+                "CredentialsProvider must not be null and could not be initialized from defaults");
+        if (!builder.lazyDefaults) {
+            this.region.get();
+            this.credentialsProvider.get();
+        }
+
+        this.expiry = validateOrDefault(builder.expiry);
+        this.refreshThreshold = nonNegativeOrDefault(builder.refreshThreshold, DEFAULT_REFRESH_THRESHOLD,
+                "Refresh threshold");
+        this.clock = builder.clock != null ? builder.clock : Clock.systemUTC();
+        this.metrics = builder.metrics != null ? builder.metrics : TokenMetrics.noOp();
+        Duration mintTimeout = nonNegativeOrDefault(builder.mintTimeout, DEFAULT_MINT_TIMEOUT, "Mint timeout");
+
+        if (builder.cacheEnabled || builder.backgroundRefresh || builder.staleWhileRevalidate) {
+            TokenCache.Builder cacheBuilder = TokenCache.builder(this::mintToken, this.clock)
+                    .mintTimeout(mintTimeout)
+                    .metrics(this.metrics)
+                    .region(this.region::peek);
+            if (builder.backgroundRefresh || builder.staleWhileRevalidate) {
+                cacheBuilder.scheduler(TokenRefreshScheduler.shared());
+            }
+            if (builder.refreshListener != null) {
+                cacheBuilder.listener(builder.refreshListener);
+            }
+            if (builder.staleWhileRevalidate) {
+                cacheBuilder.staleWhileRevalidate();
+            }
+            if (builder.backgroundRefresh) {
+                cacheBuilder.backgroundRefresh(
+                        nonNegativeOrDefault(builder.refreshLeadTime, DEFAULT_REFRESH_LEAD_TIME, "Refresh lead time"),
+                        nonNegativeOrDefault(builder.refreshJitter, DEFAULT_REFRESH_JITTER, "Refresh jitter"));
+            }
+            this.tokenCache = cacheBuilder.build();
+        } else {
+            this.tokenCache = null;
+        }
     }
 
     /**
-     * Generates a bearer token using credentialsProvider and region provider during constructor
+     * Generates a bearer token using credentialsProvider and region provider during constructor.
+     * If caching is enabled, the previously minted token is returned until it reaches the refresh threshold.
+     * Concurrent callers that find the cached token due for refresh share a single mint. With
+     * stale-while-revalidate, a token past the refresh threshold is still returned until it expires while
+     * the refresh runs in the background.
      *
      * @return A bearer token string.
-     * @throws SdkClientException if AWS credentials could not be resolved
+     * @throws SdkClientException if AWS credentials could not be resolved, or if waiting for a mint started
+     *                            by another caller exceeded the mint timeout
+     * @throws NullPointerException if lazy defaults are enabled and the default region could not be resolved
      */
     public String getToken() {
-        AwsCredentials credentials = credentialsProvider.resolveCredentials();
+        if (tokenCache != null) {
+            return tokenCache.get();
+        }
+        return mintToken().token();
+    }
+
+    /**
+     * Returns the Authorization header value for the token {@link #getToken()} would return, rendered as a
+     * String, US-ASCII bytes and a read-only ByteBuffer. If caching is enabled, the header is rendered once
+     * per minted token and the same instance is returned until the token is refreshed, so sending it
+     * allocates nothing.
+     *
+     * @return The Authorization header value.
+     * @throws SdkClientException if AWS credentials could not be resolved, or if waiting for a mint started
+     *                            by another caller exceeded the mint timeout
+     * @throws NullPointerException if lazy defaults are enabled and the default region could not be resolved
+     */
+    public AuthorizationHeader getAuthorizationHeader() {
+        return getCachedToken().authorizationHeader();
+    }
+
+    /**
+     * Drops the cached token the header was rendered for, if it is still cached, so that the next request
+     * mints a new token. Use this when the service rejects a token, e.g. with 401 or 403, before it is due
+     * for refresh. Concurrent invalidations of the same token cause a single mint, and a token that has
+     * already been replaced is left alone. Does nothing if caching is disabled.
+     *
+     * @param header A header returned by {@link #getAuthorizationHeader()}.
+     * @throws NullPointerException if header is null
+     */
+    public void invalidate(AuthorizationHeader header) {
+        Objects.requireNonNull(header, "Header must not be null");
+        if (tokenCache != null) {
+            tokenCache.invalidate(header.cachedToken());
+        }
+    }
+
+    /**
+     * Handles a token the service rejected as unauthenticated. A token minted less than 10 seconds ago is
+     * neither invalidated nor worth retrying: a new token from the same credentials would be rejected too,
+     * and re-minting on every rejection would turn an outage into a mint storm.
+     *
+     * @param header The header of the rejected request.
+     * @return true if a retry would be sent with a different token.
+     */
+    boolean invalidateRejected(AuthorizationHeader header) {
+        CachedToken token = header.cachedToken();
+        if (tokenCache != null && tokenCache.peek() != token) {
+            // Already replaced, e.g. by a concurrent rejection of the same token
+            return true;
+        }
+        if (clock.millis() - token.issuedAtMillis() < MIN_REJECTED_TOKEN_AGE.toMillis()) {
+            return false;
+        }
+        invalidate(header);
+        return true;
+    }
+
+    /**
+     * Like {@link #getToken()}, but returns the token together with its validity window.
+     *
+     * @return The cached or newly minted token.
+     */
+    CachedToken getCachedToken() {
+        if (tokenCache != null) {
+            return tokenCache.getCachedToken(this::mintToken);
+        }
+        return mintToken();
+    }
+
+    /**
+     * @return The cached token if caching is enabled and it can be served without minting, otherwise null.
+     */
+    CachedToken getCachedTokenIfUsable() {
+        return tokenCache != null ? tokenCache.getUsable() : null;
+    }
+
+    /**
+     * Asynchronously generates a bearer token, like {@link #getToken()}, on the common fork-join pool.
+     *
+     * @return A future completed with a bearer token string.
+     * @see #getTokenAsync(Executor)
+     */
+    public CompletableFuture<String> getTokenAsync() {
+        return getTokenAsync(ForkJoinPool.commonPool());
+    }
 
-        return getToken(credentials, region, expiry);
+    /**
+     * Asynchronously generates a bearer token, like {@link #getToken()}, without blocking the calling thread.
+     * If caching is enabled and the cached token can be served, the returned future is already complete.
+     * Otherwise credentials are resolved through the provider's asynchronous
+     * {@link software.amazon.awssdk.identity.spi.IdentityProvider#resolveIdentity()} and the token is minted,
+     * both on the given executor. Providers that only resolve synchronously block an executor thread, so
+     * pass an executor suited to blocking I/O if the provider may call IMDS, ECS or STS.
+     *
+     * @param executor The executor used to resolve credentials and mint the token.
+     * @return A future completed with a bearer token string, or completed exceptionally with the failure
+     *         getToken() would have thrown.
+     * @throws NullPointerException if executor is null
+     */
+    public CompletableFuture<String> getTokenAsync(Executor executor) {
+        Objects.requireNonNull(executor, "Executor must not be null");
+        if (tokenCache != null) {
+            String cached = tokenCache.getIfUsable();
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        return CompletableFuture.supplyAsync(this::resolveIdentityAsync, executor)
+                .thenCompose(Function.identity())
+                .thenApplyAsync(identity -> {
+                    AwsCredentials credentials = CredentialUtils.toCredentials(identity);
+                    if (tokenCache != null) {
+                        return tokenCache.get(() -> mintToken(credentials));
+                    }
+                    return mintToken(credentials).token();
+                }, executor);
+    }
+
+    private CompletableFuture<AwsCredentialsIdentity> resolveIdentityAsync() {
+        Object event = TokenEvents.beginCredentialResolution();
+        long start = System.nanoTime();
+        AwsCredentialsProvider provider;
+        try {
+            provider = credentialsProvider.get();
+        } catch (RuntimeException e) {
+            TokenEvents.endCredentialResolution(event, null, e);
+            metrics.recordRefreshFailure();
+            throw e;
+        }
+        // resolveIdentity() returns a future of some subtype of AwsCredentialsIdentity
+        CompletableFuture<AwsCredentialsIdentity> resolved = new CompletableFuture<>();
+        provider.resolveIdentity().whenComplete((identity, error) -> {
+            TokenEvents.endCredentialResolution(event, provider, error);
+            if (error == null) {
+                metrics.recordCredentialResolution(System.nanoTime() - start);
+            } else {
+                metrics.recordRefreshFailure();
+            }
+        }).whenComplete((identity, error) -> {
+            if (error != null) {
+                resolved.completeExceptionally(error);
+            } else {
+                resolved.complete(identity);
+            }
+        });
+        return resolved;
+    }
+
+    /**
+     * Resolves credentials and mints a new token with the configured region and expiry.
+     *
+     * @return The minted token and its validity window.
+     */
+    private CachedToken mintToken() {
+        Object event = TokenEvents.beginCredentialResolution();
+        long start = System.nanoTime();
+        AwsCredentialsProvider provider = null;
+        AwsCredentials credentials;
+        try {
+            provider = credentialsProvider.get();
+            credentials = provider.resolveCredentials();
+        } catch (RuntimeException e) {
+            TokenEvents.endCredentialResolution(event, provider, e);
+            metrics.recordRefreshFailure();
+            throw e;
+        }
+        TokenEvents.endCredentialResolution(event, provider, null);
+        metrics.recordCredentialResolution(System.nanoTime() - start);
+        return mintToken(credentials);
+    }
+
+    private CachedToken mintToken(AwsCredentials credentials) {
+        long start = System.nanoTime();
+        CachedToken minted;
+        try {
+            minted = mintToken(credentials, region.get(), expiry, clock.instant(), refreshThreshold);
+        } catch (RuntimeException e) {
+            metrics.recordRefreshFailure();
+            throw e;
+        }
+        metrics.recordMint(System.nanoTime() - start);
+        return minted;
+    }
+
+    /**
+     * Mints a token signed at the given instant and records its validity window. The token expires at the
+     * earlier of signing time plus expiry and the expiration of the credentials.
+     *
+     * @param credentials AWS credentials.
+     * @param region The AWS region.
+     * @param expiry Validated token expiration duration.
+     * @param signingTime The signing time embedded in the token.
+     * @param refreshThreshold How long before expiration the token should be replaced.
+     * @return The minted token and its validity window.
+     */
+    static CachedToken mintToken(AwsCredentials credentials, Region region, Duration expiry, Instant signingTime,
+                                 Duration refreshThreshold) {
+        String token = getToken(credentials, region, expiry, signingTime);
+
+        Instant expiration = signingTime.plus(expiry);
+        if (credentials.expirationTime().isPresent() && credentials.expirationTime().get().isBefore(expiration)) {
+            expiration = credentials.expirationTime().get();
+        }
+        return new CachedToken(token, signingTime, expiration, refreshThreshold);
     }
 
     /**
@@ -103,8 +368,66 @@ public class BedrockTokenGenerator {
         Objects.requireNonNull(credentials, "Credentials must not be null");
         Objects.requireNonNull(region, "Region must not be null");
 
-        expiry = validateOrDefault(expiry);
+        return getToken(credentials, region, validateOrDefault(expiry), Clock.systemUTC().instant());
+    }
+
+    /**
+     * Generates a bearer token signed at the given instant.
+     * Tokens are presigned by {@link BearerTokenPresigner}, which produces the same token as the SDK signer
+     * with far less work. The SDK signer is used instead for anonymous credentials, if the JVM lacks the
+     * required algorithms, or if the software.amazon.bedrock.token.useSdkSigner system property is true.
+     *
+     * @param credentials AWS credentials.
+     * @param region The AWS region.
+     * @param expiry Validated token expiration duration.
+     * @param signingTime The signing time embedded in the token.
+     * @return A bearer token string.
+     */
+    static String getToken(AwsCredentials credentials, Region region, Duration expiry, Instant signingTime) {
+        return getToken(credentials, region, expiry, signingTime, BearerTokenPresigner.signingKeys());
+    }
+
+    /**
+     * Like {@link #getToken(AwsCredentials, Region, Duration, Instant)}, caching the signing key in the given
+     * cache rather than the shared one.
+     *
+     * @param credentials AWS credentials.
+     * @param region The AWS region.
+     * @param expiry Validated token expiration duration.
+     * @param signingTime The signing time embedded in the token.
+     * @param signingKeys The signing key cache.
+     * @return A bearer token string.
+     */
+    static String getToken(AwsCredentials credentials, Region region, Duration expiry, Instant signingTime,
+                           SigningKeyCache signingKeys) {
+        Object event = TokenEvents.beginMint();
+        String token;
+        try {
+            if (BearerTokenPresigner.isEnabled() && !CredentialUtils.isAnonymous(credentials)) {
+                token = BearerTokenPresigner.presign(credentials, region, expiry.getSeconds(),
+                        signingTime.getEpochSecond(), signingKeys);
+            } else {
+                token = getTokenWithSdkSigner(credentials, region, expiry, signingTime);
+            }
+        } catch (RuntimeException e) {
+            TokenEvents.endMint(event, region, expiry, e);
+            throw e;
+        }
+        TokenEvents.endMint(event, region, expiry, null);
+        return token;
+    }
 
+    /**
+     * Generates a bearer token signed at the given instant using the SDK's AwsV4HttpSigner.
+     *
+     * @param credentials AWS credentials.
+     * @param region The AWS region.
+     * @param expiry Validated token expiration duration.
+     * @param signingTime The signing time embedded in the token.
+     * @return A bearer token string.
+     */
+    static String getTokenWithSdkSigner(AwsCredentials credentials, Region region, Duration expiry,
+                                        Instant signingTime) {
         AwsV4HttpSigner signer = AwsV4HttpSigner.create();
 
         SdkHttpFullRequest sdkHttpRequest = SdkHttpFullRequest.builder()
@@ -121,21 +444,12 @@ public class BedrockTokenGenerator {
                 .putProperty(AwsV4HttpSigner.REGION_NAME, region.id())
                 .putProperty(AwsV4HttpSigner.AUTH_LOCATION, AwsV4FamilyHttpSigner.AuthLocation.QUERY_STRING)
                 .putProperty(AwsV4HttpSigner.EXPIRATION_DURATION, expiry)
+                .putProperty(AwsV4HttpSigner.SIGNING_CLOCK, Clock.fixed(signingTime, ZoneOffset.UTC))
                 .request(sdkHttpRequest)
                 .build();
 
         SdkHttpRequest signedRequest = signer.sign(signRequest).request();
-        String uri = signedRequest.getUri().toString();
-
-        String strippedUri = uri.startsWith(HTTPS_PREFIX)
-                ? uri.substring(HTTPS_PREFIX.length())
-                : uri;
-
-        String encodedString = Base64.getEncoder().encodeToString(
-                (strippedUri + TOKEN_VERSION).getBytes(StandardCharsets.UTF_8)
-        );
-
-        return AUTH_PREFIX + encodedString;
+        return TokenEncoding.encodeSignedUri(signedRequest.getUri().toString());
     }
 
     /**
@@ -160,7 +474,7 @@ public class BedrockTokenGenerator {
      * @return A valid duration (1 second to 12 hours).
      * @throws IllegalArgumentException if expiry is invalid.
      */
-    private static Duration validateOrDefault(Duration expiry) {
+    static Duration validateOrDefault(Duration expiry) {
         if (expiry == null) {
             return DEFAULT_EXPIRY;
         }
@@ -170,6 +484,38 @@ public class BedrockTokenGenerator {
         return expiry;
     }
 
+    /**
+     * Validates that a duration is not negative, or returns the default if it is null.
+     *
+     * @param duration Duration to validate.
+     * @param defaultValue Value to use when duration is null.
+     * @param name Name of the setting, used in the error message.
+     * @return A non-negative duration.
+     * @throws IllegalArgumentException if duration is negative.
+     */
+    static Duration nonNegativeOrDefault(Duration duration, Duration defaultValue, String name) {
+        if (duration == null) {
+            return defaultValue;
+        }
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException(name + " must not be negative.");
+        }
+        return duration;
+    }
+
+    /**
+     * Stops background token refresh, if enabled. The generator remains usable afterwards and mints
+     * tokens inline when needed. Scheduled refreshes only hold the generator weakly, so one that is dropped
+     * without being closed is still garbage collected, and its refreshes stop then; closing it stops them
+     * right away.
+     */
+    @Override
+    public void close() {
+        if (tokenCache != null) {
+            tokenCache.close();
+        }
+    }
+
     /**
      * Returns a builder instance for creating a BedrockTokenGenerator with custom configuration.
      *
@@ -187,6 +533,18 @@ public class BedrockTokenGenerator {
         private Region region;
         private AwsCredentialsProvider provider;
         private Duration expiry;
+        private boolean cacheEnabled;
+        private Duration refreshThreshold;
+        private boolean backgroundRefresh;
+        private Duration refreshLeadTime;
+        private Duration refreshJitter;
+        private Duration mintTimeout;
+        private boolean staleWhileRevalidate;
+        private TokenRefreshListener refreshListener;
+        private TokenMetrics metrics;
+        private boolean lazyDefaults;
+        private AwsRegionProvider regionProvider;
+        private Clock clock;
 
         public Builder region(Region region) {
             this.region = region;
@@ -203,16 +561,158 @@ public class BedrockTokenGenerator {
             return this;
         }
 
+        /**
+         * Enables caching of the minted token. When enabled, {@link BedrockTokenGenerator#getToken()} returns
+         * the same token until it is within the refresh threshold of its expiry, and only then mints a new one.
+         * Defaults to false.
+         *
+         * @param cacheEnabled Whether to cache the minted token.
+         * @return This builder.
+         */
+        public Builder cacheEnabled(boolean cacheEnabled) {
+            this.cacheEnabled = cacheEnabled;
+            return this;
+        }
+
+        /**
+         * Sets how long before expiry a cached token is replaced. Tokens are never refreshed before half of
+         * their lifetime has elapsed, so short expiries still benefit from caching. Defaults to 5 minutes.
+         *
+         * @param refreshThreshold The refresh threshold. Must not be negative.
+         * @return This builder.
+         */
+        public Builder refreshThreshold(Duration refreshThreshold) {
+            this.refreshThreshold = refreshThreshold;
+            return this;
+        }
+
+        /**
+         * Enables background refresh, which implies caching. The token is minted on a shared daemon scheduler
+         * right after build and then re-minted ahead of its refresh threshold, so callers of
+         * {@link BedrockTokenGenerator#getToken()} normally never wait on credential resolution or signing.
+         * Close the generator to stop refreshing. Defaults to false.
+         *
+         * @param backgroundRefresh Whether to refresh the cached token in the background.
+         * @return This builder.
+         */
+        public Builder backgroundRefresh(boolean backgroundRefresh) {
+            this.backgroundRefresh = backgroundRefresh;
+            return this;
+        }
+
+        /**
+         * Sets how long before the refresh threshold the background refresh runs. Defaults to 1 minute.
+         *
+         * @param refreshLeadTime The lead time. Must not be negative.
+         * @return This builder.
+         */
+        public Builder refreshLeadTime(Duration refreshLeadTime) {
+            this.refreshLeadTime = refreshLeadTime;
+            return this;
+        }
+
+        /**
+         * Sets the upper bound of a random extra lead time added to each background refresh, so that many
+         * generators do not refresh at the same instant. Defaults to 30 seconds.
+         *
+         * @param refreshJitter The maximum jitter. Must not be negative.
+         * @return This builder.
+         */
+        public Builder refreshJitter(Duration refreshJitter) {
+            this.refreshJitter = refreshJitter;
+            return this;
+        }
+
+        /**
+         * Sets how long a caller waits for a token mint already started by another caller when the cached
+         * token is due for refresh. Only applies when caching is enabled. Defaults to 30 seconds.
+         *
+         * @param mintTimeout The mint timeout. Must not be negative.
+         * @return This builder.
+         */
+        public Builder mintTimeout(Duration mintTimeout) {
+            this.mintTimeout = mintTimeout;
+            return this;
+        }
+
+        /**
+         * Enables stale-while-revalidate, which implies caching. Once the cached token reaches the refresh
+         * threshold, {@link BedrockTokenGenerator#getToken()} keeps returning it until it actually expires,
+         * while the refresh runs in the background and is retried with exponential backoff if credential
+         * resolution or signing fails. Callers only mint inline when no unexpired token is available.
+         * Defaults to false.
+         *
+         * @param staleWhileRevalidate Whether to serve the cached token while it is being refreshed.
+         * @return This builder.
+         */
+        public Builder staleWhileRevalidate(boolean staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+            return this;
+        }
+
+        /**
+         * Sets a listener that is notified when a refresh of the cached token fails and when refreshing
+         * recovers. Only applies when caching is enabled.
+         *
+         * @param refreshListener The listener.
+         * @return This builder.
+         */
+        public Builder refreshListener(TokenRefreshListener refreshListener) {
+            this.refreshListener = refreshListener;
+            return this;
+        }
+
+        /**
+         * Sets the metrics that receive mint and credential resolution latencies, refresh failures and, when
+         * caching is enabled, cache hits, misses and the age of handed out tokens. Defaults to
+         * {@link TokenMetrics#noOp()}.
+         *
+         * @param metrics The metrics, e.g. a {@link SimpleTokenMetrics}.
+         * @return This builder.
+         */
+        public Builder metrics(TokenMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Defers resolving the default region and credentials provider, when they are not set explicitly,
+         * from build() to the first token request. Resolving the default region can block on the EC2
+         * instance metadata service, so this keeps build() off that path, e.g. during service startup.
+         * Combined with background refresh, the first mint and thus the resolution runs on the background
+         * scheduler right after build. A region that cannot be resolved is then reported by the first token
+         * request, and resolution is retried on the next one. Defaults to false.
+         *
+         * @param lazyDefaults Whether to resolve the default region and credentials provider on first use.
+         * @return This builder.
+         */
+        public Builder lazyDefaults(boolean lazyDefaults) {
+            this.lazyDefaults = lazyDefaults;
+            return this;
+        }
+
+        Builder regionProvider(AwsRegionProvider regionProvider) {
+            this.regionProvider = regionProvider;
+            return this;
+        }
+
+        Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
         /**
          * Builds a BedrockTokenGenerator with the configured parameters.
          * 
          * @return A new BedrockTokenGenerator instance
          * @throws SdkClientException if default region or credentials provider cannot be initialized
-         * @throws NullPointerException if region or credentials provider cannot be resolved
-         * @throws IllegalArgumentException if expiry is less than or equal to 0 or greater than 12 hours
+         * @throws NullPointerException if region or credentials provider cannot be resolved and lazy defaults
+         *                              are not enabled
+         * @throws IllegalArgumentException if expiry is less than or equal to 0 or greater than 12 hours,
+         *                                  or if the refresh threshold, lead time, jitter or mint timeout is negative
          */
         public BedrockTokenGenerator build() {
-            return new BedrockTokenGenerator(region, provider, expiry);
+            return new BedrockTokenGenerator(this);
         }
     }
 }
@@ -0,0 +1,309 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.token.credentials.SdkToken;
+import software.amazon.awssdk.auth.token.credentials.SdkTokenProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.identity.spi.ResolveIdentityRequest;
+import software.amazon.awssdk.identity.spi.TokenIdentity;
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * BedrockTokenProvider supplies bearer tokens to SDK clients that use the bearer auth scheme, such as
+ * BedrockRuntimeClient, through the SDK's {@link SdkTokenProvider} interface:
+ * <pre>{@code
+ * BedrockRuntimeClient client = BedrockRuntimeClient.builder()
+ *     .region(Region.US_WEST_2)
+ *     .tokenProvider(BedrockTokenProvider.builder().region(Region.US_WEST_2).build())
+ *     .build();
+ * }</pre>
+ * Tokens are minted by a {@link BedrockTokenGenerator} with background refresh, so resolving the identity for
+ * a request normally returns the cached token without resolving credentials or signing. The returned
+ * {@link SdkToken} is created once per minted token and carries its expiration, so it is shared by all
+ * requests until the next refresh. Only when no usable token is cached, e.g. right after build or after
+ * refreshes have failed, {@link #resolveIdentity(ResolveIdentityRequest)} mints on the configured executor.
+ * The SdkToken is dropped before a CRaC checkpoint, along with the generator's cached token.
+ * Close the provider to stop the background refresh.
+ */
+public final class BedrockTokenProvider implements SdkTokenProvider, AutoCloseable {
+
+    private static final String PROVIDER_NAME = "BedrockTokenProvider";
+
+    private final BedrockTokenGenerator generator;
+    private final Executor executor;
+    private volatile BedrockSdkToken current;
+    private final CheckpointHooks.Hook checkpointHook = new CheckpointHooks.Hook() {
+        @Override
+        public void beforeCheckpoint() {
+            current = null;
+        }
+
+        @Override
+        public void afterRestore() {
+        }
+    };
+
+    private BedrockTokenProvider(Builder builder) {
+        this.executor = builder.executor != null ? builder.executor : ForkJoinPool.commonPool();
+        BedrockTokenGenerator.Builder generatorBuilder = BedrockTokenGenerator.builder()
+                .region(builder.region)
+                .credentialsProvider(builder.provider)
+                .expiry(builder.expiry)
+                .refreshThreshold(builder.refreshThreshold)
+                .staleWhileRevalidate(builder.staleWhileRevalidate)
+                .lazyDefaults(builder.lazyDefaults)
+                .backgroundRefresh(true);
+        if (builder.metrics != null) {
+            generatorBuilder.metrics(builder.metrics);
+        }
+        if (builder.clock != null) {
+            generatorBuilder.clock(builder.clock);
+        }
+        this.generator = generatorBuilder.build();
+        CheckpointHooks.register(checkpointHook);
+    }
+
+    /**
+     * Creates a BedrockTokenProvider with the default region, credentials provider and expiry.
+     *
+     * @return A new BedrockTokenProvider.
+     * @throws SdkClientException if default region or credentials provider cannot be initialized
+     */
+    public static BedrockTokenProvider create() {
+        return builder().build();
+    }
+
+    /**
+     * Returns a builder instance for creating a BedrockTokenProvider.
+     *
+     * @return A new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the cached token, minting one on the calling thread if none can be served.
+     *
+     * @return The bearer token.
+     * @throws SdkClientException if AWS credentials could not be resolved, or if waiting for a mint started
+     *                            by another caller exceeded the mint timeout
+     */
+    @Override
+    public SdkToken resolveToken() {
+        return identity(generator.getCachedToken());
+    }
+
+    /**
+     * Returns a completed future with the cached token, or mints one on the configured executor if none can
+     * be served.
+     *
+     * @param request The request, which carries no properties this provider uses.
+     * @return A future completed with the bearer token, or completed exceptionally with the failure
+     *         {@link #resolveToken()} would have thrown.
+     */
+    @Override
+    public CompletableFuture<TokenIdentity> resolveIdentity(ResolveIdentityRequest request) {
+        CachedToken cached = generator.getCachedTokenIfUsable();
+        if (cached != null) {
+            return CompletableFuture.<TokenIdentity>completedFuture(identity(cached));
+        }
+        return CompletableFuture.<TokenIdentity>supplyAsync(this::resolveToken, executor);
+    }
+
+    /**
+     * Stops the background refresh.
+     */
+    @Override
+    public void close() {
+        generator.close();
+    }
+
+    /**
+     * @return The SdkToken handed out last, or null if none has been since the last checkpoint.
+     */
+    SdkToken peek() {
+        return current;
+    }
+
+    /**
+     * @return The SdkToken of the given token, reusing the previous one if the token has not changed.
+     */
+    private SdkToken identity(CachedToken token) {
+        BedrockSdkToken identity = current;
+        if (identity == null || identity.cached != token) {
+            identity = new BedrockSdkToken(token);
+            current = identity;
+        }
+        return identity;
+    }
+
+    private static final class BedrockSdkToken implements SdkToken {
+        private final CachedToken cached;
+        private final Optional<Instant> expirationTime;
+
+        BedrockSdkToken(CachedToken cached) {
+            this.cached = cached;
+            this.expirationTime = Optional.of(cached.expiration());
+        }
+
+        @Override
+        public String token() {
+            return cached.token();
+        }
+
+        @Override
+        public Optional<Instant> expirationTime() {
+            return expirationTime;
+        }
+
+        @Override
+        public Optional<String> providerName() {
+            return Optional.of(PROVIDER_NAME);
+        }
+
+        @Override
+        public String toString() {
+            return "BedrockSdkToken(expirationTime=" + cached.expiration() + ")";
+        }
+    }
+
+    /**
+     * Builder class for BedrockTokenProvider.
+     */
+    public static class Builder {
+        private Region region;
+        private AwsCredentialsProvider provider;
+        private Duration expiry;
+        private Duration refreshThreshold;
+        private boolean staleWhileRevalidate;
+        private boolean lazyDefaults;
+        private TokenMetrics metrics;
+        private Executor executor;
+        private Clock clock;
+
+        /**
+         * Sets the region the tokens are minted for. Defaults to the DefaultAwsRegionProviderChain.
+         *
+         * @param region The AWS region.
+         * @return This builder.
+         */
+        public Builder region(Region region) {
+            this.region = region;
+            return this;
+        }
+
+        /**
+         * Sets the credentials provider. Defaults to DefaultCredentialsProvider.
+         *
+         * @param provider The credentials provider.
+         * @return This builder.
+         */
+        public Builder credentialsProvider(AwsCredentialsProvider provider) {
+            this.provider = provider;
+            return this;
+        }
+
+        /**
+         * Sets the token expiry. Defaults to 12 hours.
+         *
+         * @param expiry The token expiry (max 12 hours).
+         * @return This builder.
+         */
+        public Builder expiry(Duration expiry) {
+            this.expiry = expiry;
+            return this;
+        }
+
+        /**
+         * Sets how long before expiry tokens are replaced. Defaults to 5 minutes.
+         *
+         * @param refreshThreshold The refresh threshold. Must not be negative.
+         * @return This builder.
+         */
+        public Builder refreshThreshold(Duration refreshThreshold) {
+            this.refreshThreshold = refreshThreshold;
+            return this;
+        }
+
+        /**
+         * Keeps serving the cached token until it expires while failed refreshes are retried in the
+         * background. See {@link BedrockTokenGenerator.Builder#staleWhileRevalidate(boolean)}. Defaults to
+         * false.
+         *
+         * @param staleWhileRevalidate Whether to serve the cached token while it is being refreshed.
+         * @return This builder.
+         */
+        public Builder staleWhileRevalidate(boolean staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+            return this;
+        }
+
+        /**
+         * Defers resolving the default region and credentials provider to the first background refresh. See
+         * {@link BedrockTokenGenerator.Builder#lazyDefaults(boolean)}. Defaults to false.
+         *
+         * @param lazyDefaults Whether to resolve the default region and credentials provider on first use.
+         * @return This builder.
+         */
+        public Builder lazyDefaults(boolean lazyDefaults) {
+            this.lazyDefaults = lazyDefaults;
+            return this;
+        }
+
+        /**
+         * Sets the metrics of the underlying generator. Defaults to {@link TokenMetrics#noOp()}.
+         *
+         * @param metrics The metrics.
+         * @return This builder.
+         */
+        public Builder metrics(TokenMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sets the executor that mints tokens for {@link BedrockTokenProvider#resolveIdentity} when no cached
+         * token can be served. Credential resolution may block, so prefer an executor suited to blocking I/O.
+         * Defaults to the common fork-join pool.
+         *
+         * @param executor The executor.
+         * @return This builder.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Builds a BedrockTokenProvider and starts minting its first token in the background.
+         *
+         * @return A new BedrockTokenProvider instance
+         * @throws SdkClientException if default region or credentials provider cannot be initialized
+         * @throws NullPointerException if region or credentials provider cannot be resolved and lazy defaults
+         *                              are not enabled
+         * @throws IllegalArgumentException if expiry is less than or equal to 0 or greater than 12 hours, or if
+         *                                  the refresh threshold is negative
+         */
+        public BedrockTokenProvider build() {
+            return new BedrockTokenProvider(this);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Immutable snapshot of a minted bearer token together with the instants that govern its reuse, and the
+ * Authorization header rendered from it on first use.
+ * All instants are also kept as epoch milliseconds so that the cache read path can compare them
+ * against the clock without allocating.
+ */
+final class CachedToken {
+
+    private final String token;
+    private final Instant issuedAt;
+    private final Instant expiration;
+    private final long issuedAtMillis;
+    private final long expiresAtMillis;
+    private final long refreshAtMillis;
+    private volatile AuthorizationHeader authorizationHeader;
+
+    /**
+     * @param token The bearer token.
+     * @param issuedAt The signing time of the token.
+     * @param expiration The instant after which the token is no longer accepted.
+     * @param refreshThreshold How long before expiration the token should be replaced. The refresh point
+     *                         never falls before the midpoint of the token lifetime, so short-lived tokens
+     *                         are still reused.
+     */
+    CachedToken(String token, Instant issuedAt, Instant expiration, Duration refreshThreshold) {
+        this.token = token;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.issuedAtMillis = issuedAt.toEpochMilli();
+        this.expiresAtMillis = expiration.toEpochMilli();
+        this.refreshAtMillis = refreshAtMillis(issuedAt, expiration, refreshThreshold);
+    }
+
+    /**
+     * @return The instant, in epoch milliseconds, at which a token issued and expiring at the given instants
+     *         is due for refresh: refreshThreshold before expiration, but not before the token's half-life.
+     */
+    static long refreshAtMillis(Instant issuedAt, Instant expiration, Duration refreshThreshold) {
+        long issuedAtMillis = issuedAt.toEpochMilli();
+        long expiresAtMillis = expiration.toEpochMilli();
+        long halfLife = (expiresAtMillis - issuedAtMillis) / 2;
+        return Math.max(expiresAtMillis - refreshThreshold.toMillis(), issuedAtMillis + halfLife);
+    }
+
+    String token() {
+        return token;
+    }
+
+    /**
+     * @return The Authorization header for this token, rendered on first use.
+     */
+    AuthorizationHeader authorizationHeader() {
+        AuthorizationHeader header = authorizationHeader;
+        if (header == null) {
+            // A racing caller may render a second, equal header; either one is fine to keep.
+            header = new AuthorizationHeader(this);
+            authorizationHeader = header;
+        }
+        return header;
+    }
+
+    Instant issuedAt() {
+        return issuedAt;
+    }
+
+    Instant expiration() {
+        return expiration;
+    }
+
+    long issuedAtMillis() {
+        return issuedAtMillis;
+    }
+
+    long refreshAtMillis() {
+        return refreshAtMillis;
+    }
+
+    /**
+     * @return true if the token should still be handed out without minting a replacement.
+     */
+    boolean isFresh(long nowMillis) {
+        return nowMillis < refreshAtMillis;
+    }
+
+    /**
+     * @return true if the token is still inside its real validity window.
+     */
+    boolean isUnexpired(long nowMillis) {
+        return nowMillis < expiresAtMillis;
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Runs hooks around Coordinated Restore at Checkpoint (CRaC), as used by CRaC-enabled JDKs and AWS Lambda
+ * SnapStart, so that caches do not carry secret-derived material into a snapshot and do not serve stale
+ * tokens after a restore.
+ * <p>
+ * A single resource is registered with the global CRaC context: through the org.crac API if it is on the
+ * class path, otherwise through the JDK's jdk.crac API if present. Both are accessed reflectively, so
+ * neither is a dependency, and without either the hooks simply never run. Hooks are held weakly, so
+ * registering one does not keep its owner from being collected. Hooks run in registration order before a
+ * checkpoint and in reverse order after a restore; a failing hook does not prevent the others from running.
+ */
+final class CheckpointHooks {
+
+    /**
+     * Callbacks around a checkpoint. Both run on the thread performing the checkpoint or restore and should
+     * not block.
+     */
+    interface Hook {
+
+        /**
+         * Called before a checkpoint is taken. Should drop tokens and wipe secret-derived material.
+         */
+        void beforeCheckpoint();
+
+        /**
+         * Called after the process was restored from a checkpoint. Should start re-minting asynchronously.
+         */
+        void afterRestore();
+    }
+
+    private static final String[] CRAC_PACKAGES = {"org.crac", "jdk.crac"};
+    private static final List<WeakReference<Hook>> HOOKS = new ArrayList<>();
+    private static int pruneAt = 16;
+    // Strongly reachable, since CRaC contexts may only hold their resources weakly.
+    private static final Object RESOURCE = registerResource();
+
+    private CheckpointHooks() {
+    }
+
+    /**
+     * @return true if a CRaC API was found and the hooks run around checkpoints.
+     */
+    static boolean isAvailable() {
+        return RESOURCE != null;
+    }
+
+    /**
+     * Registers a hook. The caller must keep the hook strongly reachable for as long as it should run.
+     *
+     * @param hook The hook.
+     */
+    static void register(Hook hook) {
+        synchronized (HOOKS) {
+            if (HOOKS.size() >= pruneAt) {
+                HOOKS.removeIf(reference -> reference.get() == null);
+                pruneAt = Math.max(16, 2 * HOOKS.size());
+            }
+            HOOKS.add(new WeakReference<>(hook));
+        }
+    }
+
+    /**
+     * Runs the beforeCheckpoint callbacks of all live hooks.
+     */
+    static void beforeCheckpoint() {
+        for (Hook hook : liveHooks(false)) {
+            try {
+                hook.beforeCheckpoint();
+            } catch (RuntimeException e) {
+                // Keep going: a failure must not leave other caches holding secrets in the snapshot.
+            }
+        }
+    }
+
+    /**
+     * Runs the afterRestore callbacks of all live hooks.
+     */
+    static void afterRestore() {
+        for (Hook hook : liveHooks(true)) {
+            try {
+                hook.afterRestore();
+            } catch (RuntimeException e) {
+                // Keep going: the affected cache mints inline on its next use instead.
+            }
+        }
+    }
+
+    private static List<Hook> liveHooks(boolean reverse) {
+        List<Hook> live = new ArrayList<>();
+        synchronized (HOOKS) {
+            for (Iterator<WeakReference<Hook>> it = HOOKS.iterator(); it.hasNext(); ) {
+                Hook hook = it.next().get();
+                if (hook == null) {
+                    it.remove();
+                } else if (reverse) {
+                    live.add(0, hook);
+                } else {
+                    live.add(hook);
+                }
+            }
+        }
+        return live;
+    }
+
+    private static Object registerResource() {
+        for (String cracPackage : CRAC_PACKAGES) {
+            try {
+                Class<?> core = Class.forName(cracPackage + ".Core");
+                Class<?> context = Class.forName(cracPackage + ".Context");
+                Class<?> resource = Class.forName(cracPackage + ".Resource");
+                Object globalContext = core.getMethod("getGlobalContext").invoke(null);
+                Object proxy = resourceProxy(resource);
+                context.getMethod("register", resource).invoke(globalContext, proxy);
+                return proxy;
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                // Not available; try the next API.
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates an implementation of a CRaC Resource interface that runs the hooks.
+     *
+     * @param resourceInterface The Resource interface, with beforeCheckpoint and afterRestore methods.
+     * @return The resource.
+     */
+    static Object resourceProxy(Class<?> resourceInterface) {
+        InvocationHandler handler = new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "beforeCheckpoint":
+                        beforeCheckpoint();
+                        return null;
+                    case "afterRestore":
+                        afterRestore();
+                        return null;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "BedrockTokenCheckpointResource";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        };
+        return Proxy.newProxyInstance(CheckpointHooks.class.getClassLoader(), new Class<?>[] {resourceInterface},
+                handler);
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reusable HMAC-SHA256 and SHA-256 engines for token minting. Looking up {@link Mac} and {@link MessageDigest}
+ * instances through the JCA providers is expensive and contended, so instances are reused.
+ * <p>
+ * Platform threads each keep their own engines. Virtual threads borrow engines from a small shared pool
+ * instead, since there may be far more of them than carrier threads and a per-thread instance would
+ * rarely be reused. Callers must {@link #release()} the engines they {@link #acquire()}d.
+ * <p>
+ * Every operation resets the engine it uses before starting, so an engine left in an intermediate state by
+ * a failed operation is still safe to reuse.
+ * <p>
+ * An initialized {@link Mac} retains its last key, and a {@link MessageDigest} may retain its last input
+ * block. Every engine is therefore registered, weakly, when it is created, and {@link #wipeAll()} re-keys
+ * and resets all of them before a checkpoint, including those of idle threads. Operations and the wipe lock
+ * the engine, so a wipe never runs in the middle of a mint.
+ */
+final class CryptoEngines {
+
+    static final String HMAC_ALGORITHM = "HmacSHA256";
+    static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int MAX_POOLED = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+
+    private static final ThreadLocal<CryptoEngines> PER_THREAD = ThreadLocal.withInitial(() -> create(false));
+    private static final Queue<CryptoEngines> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOL_SIZE = new AtomicInteger();
+    private static final Set<CryptoEngines> LIVE = Collections.newSetFromMap(new WeakHashMap<>());
+    private static final SecretKeySpec WIPE_KEY = new SecretKeySpec(new byte[32], HMAC_ALGORITHM);
+    private static final MethodHandle IS_VIRTUAL = findIsVirtual();
+
+    private final Mac mac;
+    private final MessageDigest digest;
+    private final boolean pooled;
+
+    private CryptoEngines(Mac mac, MessageDigest digest, boolean pooled) {
+        this.mac = mac;
+        this.digest = digest;
+        this.pooled = pooled;
+    }
+
+    /**
+     * @return Engines for the current thread: its own on a platform thread, borrowed from the pool on a
+     * virtual thread.
+     */
+    static CryptoEngines acquire() {
+        if (isVirtualThread()) {
+            return acquirePooled();
+        }
+        return PER_THREAD.get();
+    }
+
+    static CryptoEngines acquirePooled() {
+        CryptoEngines engines = POOL.poll();
+        if (engines != null) {
+            POOL_SIZE.decrementAndGet();
+            return engines;
+        }
+        return create(true);
+    }
+
+    /**
+     * Returns pooled engines to the pool. Does nothing for per-thread engines.
+     */
+    void release() {
+        if (!pooled) {
+            return;
+        }
+        if (POOL_SIZE.incrementAndGet() <= MAX_POOLED) {
+            POOL.offer(this);
+        } else {
+            POOL_SIZE.decrementAndGet();
+        }
+    }
+
+    /**
+     * @param data The data to hash.
+     * @param length The number of bytes of data to hash, starting at index 0.
+     * @return The SHA-256 digest.
+     */
+    synchronized byte[] sha256(byte[] data, int length) {
+        digest.reset();
+        digest.update(data, 0, length);
+        return digest.digest();
+    }
+
+    /**
+     * @param key The HMAC key.
+     * @param data The data to authenticate.
+     * @return The HMAC-SHA256 of the data.
+     */
+    byte[] hmacSha256(byte[] key, byte[] data) {
+        return hmacSha256(key, data, data.length);
+    }
+
+    /**
+     * @param key The HMAC key.
+     * @param data The data to authenticate.
+     * @param length The number of bytes of data to authenticate, starting at index 0.
+     * @return The HMAC-SHA256 of the data.
+     */
+    synchronized byte[] hmacSha256(byte[] key, byte[] data, int length) {
+        try {
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+        } catch (InvalidKeyException e) {
+            throw SdkClientException.create("Unable to initialize HMAC-SHA256", e);
+        }
+        mac.update(data, 0, length);
+        return mac.doFinal();
+    }
+
+    /**
+     * Re-keys the HMAC engine of every live engine pair with an all-zero key and resets its digest, so that no
+     * key or input they processed survives in live objects. The engines remain usable.
+     */
+    static void wipeAll() {
+        List<CryptoEngines> live;
+        synchronized (LIVE) {
+            live = new ArrayList<>(LIVE);
+        }
+        for (CryptoEngines engines : live) {
+            engines.wipe();
+        }
+    }
+
+    private synchronized void wipe() {
+        try {
+            mac.init(WIPE_KEY);
+        } catch (InvalidKeyException e) {
+            throw SdkClientException.create("Unable to reset HMAC-SHA256", e);
+        }
+        digest.reset();
+    }
+
+    private static CryptoEngines create(boolean pooled) {
+        CryptoEngines engines;
+        try {
+            engines = new CryptoEngines(Mac.getInstance(HMAC_ALGORITHM), MessageDigest.getInstance(DIGEST_ALGORITHM),
+                    pooled);
+        } catch (GeneralSecurityException e) {
+            throw SdkClientException.create("Unable to create HMAC-SHA256 and SHA-256 engines", e);
+        }
+        synchronized (LIVE) {
+            LIVE.add(engines);
+        }
+        return engines;
+    }
+
+    static boolean isVirtualThread() {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(Thread.currentThread());
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * Thread.isVirtual() only exists on Java 21 and later.
+     */
+    private static MethodHandle findIsVirtual() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual",
+                    MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException | SecurityException e) {
+            return null;
+        }
+    }
+}
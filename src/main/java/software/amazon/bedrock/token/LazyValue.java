@@ -0,0 +1,70 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A non-null value that is computed on first use and then kept. Once computed, reads are a single volatile
+ * load. A failed computation is not kept, so the next read retries it.
+ *
+ * @param <T> The type of the value.
+ */
+final class LazyValue<T> implements Supplier<T> {
+
+    private final Supplier<? extends T> initializer;
+    private final String nullMessage;
+    private volatile T value;
+
+    private LazyValue(T value, Supplier<? extends T> initializer, String nullMessage) {
+        this.value = value;
+        this.initializer = initializer;
+        this.nullMessage = nullMessage;
+    }
+
+    /**
+     * @return A LazyValue holding an already known value.
+     */
+    static <T> LazyValue<T> of(T value) {
+        return new LazyValue<>(value, null, null);
+    }
+
+    /**
+     * @param initializer Computes the value on first use.
+     * @param nullMessage Message of the NullPointerException thrown if the initializer returns null.
+     * @return A LazyValue that computes its value on first use.
+     */
+    static <T> LazyValue<T> lazily(Supplier<? extends T> initializer, String nullMessage) {
+        return new LazyValue<>(null, initializer, nullMessage);
+    }
+
+    /**
+     * @return The value, computing it if this is the first successful read.
+     * @throws NullPointerException if the initializer returned null
+     */
+    @Override
+    public T get() {
+        T current = value;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = value;
+            if (current == null) {
+                current = Objects.requireNonNull(initializer.get(), nullMessage);
+                value = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * @return The value if it has been computed, or null.
+     */
+    T peek() {
+        return value;
+    }
+}
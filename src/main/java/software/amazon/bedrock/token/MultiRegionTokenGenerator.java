@@ -0,0 +1,336 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.CredentialUtils;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * MultiRegionTokenGenerator mints bearer tokens for several regions from a single credential resolution,
+ * for callers that route Bedrock traffic across regions.
+ * <p>
+ * Credentials are resolved once per mint. The signing keys of all regions are derived from one shared date
+ * key, and the per-region tokens are minted in parallel, all signed at the same instant. The result is a
+ * {@link RegionalTokens} that, with caching enabled, is reused as a unit until its refresh threshold.
+ * Cached tokens are dropped before a CRaC checkpoint and re-minted in the background after a restore.
+ */
+public final class MultiRegionTokenGenerator {
+
+    private static final Object MINT_KEY = new Object();
+    private static final BatchTokenGenerator DEFAULT_BATCH = BatchTokenGenerator.builder().build();
+
+    private final Set<Region> regions;
+    private final AwsCredentialsProvider credentialsProvider;
+    private final Duration expiry;
+    private final boolean cacheEnabled;
+    private final Duration refreshThreshold;
+    private final BatchTokenGenerator batch;
+    private final Executor executor;
+    private final Clock clock;
+    private final SingleFlight<Object, RegionalTokens> mints;
+    private volatile RegionalTokens current;
+    private final CheckpointHooks.Hook checkpointHook = new CheckpointHooks.Hook() {
+        @Override
+        public void beforeCheckpoint() {
+            current = null;
+        }
+
+        @Override
+        public void afterRestore() {
+            // Resolving credentials may block on IMDS, ECS or STS, so it must not tie up the shared scheduler
+            try {
+                executor.execute(() -> {
+                    try {
+                        getTokens();
+                    } catch (RuntimeException e) {
+                        // The next caller mints inline and sees the failure.
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The next caller mints inline.
+            }
+        }
+    };
+
+    private MultiRegionTokenGenerator(Builder builder) {
+        this.regions = validateRegions(builder.regions);
+        this.credentialsProvider = builder.provider != null ? builder.provider : DefaultCredentialsProvider.create();
+        this.expiry = BedrockTokenGenerator.validateOrDefault(builder.expiry);
+        this.cacheEnabled = builder.cacheEnabled;
+        this.refreshThreshold = BedrockTokenGenerator.nonNegativeOrDefault(builder.refreshThreshold,
+                BedrockTokenGenerator.DEFAULT_REFRESH_THRESHOLD, "Refresh threshold");
+        this.mints = new SingleFlight<>(BedrockTokenGenerator.nonNegativeOrDefault(builder.mintTimeout,
+                BedrockTokenGenerator.DEFAULT_MINT_TIMEOUT, "Mint timeout"));
+        this.clock = builder.clock != null ? builder.clock : Clock.systemUTC();
+        this.executor = builder.executor != null ? builder.executor : ForkJoinPool.commonPool();
+        BatchTokenGenerator.Builder batchBuilder = BatchTokenGenerator.builder().executor(this.executor);
+        if (builder.parallelism != null) {
+            batchBuilder.parallelism(builder.parallelism);
+        }
+        this.batch = batchBuilder.build();
+        if (cacheEnabled) {
+            CheckpointHooks.register(checkpointHook);
+        }
+    }
+
+    /**
+     * Returns a builder instance for creating a MultiRegionTokenGenerator.
+     *
+     * @return A new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns tokens for all configured regions. If caching is enabled, the previously minted tokens are
+     * returned until they reach the refresh threshold, and concurrent callers share a single mint.
+     *
+     * @return The tokens, keyed by region.
+     * @throws SdkClientException if AWS credentials could not be resolved, or if waiting for a mint started
+     *                            by another caller exceeded the mint timeout
+     */
+    public RegionalTokens getTokens() {
+        if (!cacheEnabled) {
+            return mint();
+        }
+        RegionalTokens cached = current;
+        if (cached != null && cached.isFresh(clock.millis())) {
+            return cached;
+        }
+        return mints.execute(MINT_KEY, () -> {
+            RegionalTokens latest = current;
+            if (latest != null && latest.isFresh(clock.millis())) {
+                return latest;
+            }
+            RegionalTokens minted = mint();
+            current = minted;
+            return minted;
+        });
+    }
+
+    /**
+     * Mints tokens for several regions from one set of credentials.
+     *
+     * @param credentials AWS credentials.
+     * @param regions The AWS regions.
+     * @param expiry Token expiration duration (max 12 hours). If null, defaults to 12 hours.
+     * @return The tokens, keyed by region.
+     * @throws NullPointerException if credentials or regions are null, or regions contains null
+     * @throws IllegalArgumentException if regions is empty, or if expiry is less than or equal to 0 or
+     *                                  greater than 12 hours
+     */
+    public static RegionalTokens getTokens(AwsCredentials credentials, Collection<Region> regions, Duration expiry) {
+        Objects.requireNonNull(credentials, "Credentials must not be null");
+        return mint(credentials, validateRegions(regions), BedrockTokenGenerator.validateOrDefault(expiry),
+                Clock.systemUTC().instant(), BedrockTokenGenerator.DEFAULT_REFRESH_THRESHOLD, DEFAULT_BATCH);
+    }
+
+    private RegionalTokens mint() {
+        Object event = TokenEvents.beginCredentialResolution();
+        AwsCredentials credentials;
+        try {
+            credentials = credentialsProvider.resolveCredentials();
+        } catch (RuntimeException e) {
+            TokenEvents.endCredentialResolution(event, credentialsProvider, e);
+            throw e;
+        }
+        TokenEvents.endCredentialResolution(event, credentialsProvider, null);
+        return mint(credentials, regions, expiry, clock.instant(), refreshThreshold, batch);
+    }
+
+    private static RegionalTokens mint(AwsCredentials credentials, Set<Region> regions, Duration expiry,
+                                       Instant signingTime, Duration refreshThreshold, BatchTokenGenerator batch) {
+        if (BearerTokenPresigner.isEnabled() && !CredentialUtils.isAnonymous(credentials)) {
+            BearerTokenPresigner.prefetchSigningKeys(credentials, regions, signingTime.getEpochSecond());
+        }
+
+        List<TokenRequest> requests = new ArrayList<>(regions.size());
+        for (Region region : regions) {
+            requests.add(TokenRequest.create(credentials, region, expiry));
+        }
+        Map<Region, String> tokens = new LinkedHashMap<>();
+        // Signed with the shared signing keys, which were just prefetched for all regions
+        for (TokenResult result : batch.getTokens(requests, signingTime, BearerTokenPresigner.signingKeys())) {
+            if (!result.isSuccessful()) {
+                throw result.error();
+            }
+            tokens.put(result.request().region(), result.token());
+        }
+
+        Instant expiration = signingTime.plus(expiry);
+        if (credentials.expirationTime().isPresent() && credentials.expirationTime().get().isBefore(expiration)) {
+            expiration = credentials.expirationTime().get();
+        }
+        return new RegionalTokens(tokens, signingTime, expiration, refreshThreshold);
+    }
+
+    private static Set<Region> validateRegions(Collection<Region> regions) {
+        Objects.requireNonNull(regions, "Regions must not be null");
+        Set<Region> validated = new LinkedHashSet<>();
+        for (Region region : regions) {
+            validated.add(Objects.requireNonNull(region, "Regions must not contain null"));
+        }
+        if (validated.isEmpty()) {
+            throw new IllegalArgumentException("At least one region is required.");
+        }
+        return Collections.unmodifiableSet(validated);
+    }
+
+    /**
+     * Builder class for MultiRegionTokenGenerator.
+     */
+    public static class Builder {
+        private Collection<Region> regions;
+        private AwsCredentialsProvider provider;
+        private Duration expiry;
+        private boolean cacheEnabled;
+        private Duration refreshThreshold;
+        private Duration mintTimeout;
+        private Integer parallelism;
+        private Executor executor;
+        private Clock clock;
+
+        /**
+         * Sets the regions to mint tokens for.
+         *
+         * @param regions The AWS regions. Must not be empty.
+         * @return This builder.
+         */
+        public Builder regions(Collection<Region> regions) {
+            this.regions = regions;
+            return this;
+        }
+
+        /**
+         * Sets the regions to mint tokens for.
+         *
+         * @param regions The AWS regions. Must not be empty.
+         * @return This builder.
+         */
+        public Builder regions(Region... regions) {
+            this.regions = regions != null ? Arrays.asList(regions) : null;
+            return this;
+        }
+
+        /**
+         * Sets the credentials provider. Defaults to DefaultCredentialsProvider.
+         *
+         * @param provider The credentials provider.
+         * @return This builder.
+         */
+        public Builder credentialsProvider(AwsCredentialsProvider provider) {
+            this.provider = provider;
+            return this;
+        }
+
+        /**
+         * Sets the token expiry. Defaults to 12 hours.
+         *
+         * @param expiry The token expiry (max 12 hours).
+         * @return This builder.
+         */
+        public Builder expiry(Duration expiry) {
+            this.expiry = expiry;
+            return this;
+        }
+
+        /**
+         * Enables reusing the minted tokens until they reach the refresh threshold. Defaults to false.
+         *
+         * @param cacheEnabled Whether to cache the tokens.
+         * @return This builder.
+         */
+        public Builder cacheEnabled(boolean cacheEnabled) {
+            this.cacheEnabled = cacheEnabled;
+            return this;
+        }
+
+        /**
+         * Sets how long before expiry cached tokens are replaced. Defaults to 5 minutes.
+         *
+         * @param refreshThreshold The refresh threshold. Must not be negative.
+         * @return This builder.
+         */
+        public Builder refreshThreshold(Duration refreshThreshold) {
+            this.refreshThreshold = refreshThreshold;
+            return this;
+        }
+
+        /**
+         * Sets how long a caller waits for a mint already started by another caller. Defaults to 30 seconds.
+         *
+         * @param mintTimeout The mint timeout. Must not be negative.
+         * @return This builder.
+         */
+        public Builder mintTimeout(Duration mintTimeout) {
+            this.mintTimeout = mintTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of threads minting regional tokens at once, including the calling thread.
+         * Defaults to the number of available processors.
+         *
+         * @param parallelism The parallelism. Must be greater than 0.
+         * @return This builder.
+         */
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets the executor used to mint regional tokens in parallel, and to re-mint cached tokens after a CRaC
+         * restore. Defaults to the common fork-join pool.
+         *
+         * @param executor The executor.
+         * @return This builder.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Builds a MultiRegionTokenGenerator with the configured parameters.
+         *
+         * @return A new MultiRegionTokenGenerator instance
+         * @throws NullPointerException if regions is null or contains null
+         * @throws IllegalArgumentException if regions is empty, if expiry is less than or equal to 0 or greater
+         *                                  than 12 hours, if the refresh threshold or mint timeout is negative,
+         *                                  or if parallelism is not positive
+         */
+        public MultiRegionTokenGenerator build() {
+            return new MultiRegionTokenGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+/**
+ * Shared {@link TokenMetrics} that discards all measurements. A single instance keeps the hot path
+ * monomorphic when metrics are not configured.
+ */
+final class NoOpTokenMetrics implements TokenMetrics {
+
+    static final NoOpTokenMetrics INSTANCE = new NoOpTokenMetrics();
+
+    private NoOpTokenMetrics() {
+    }
+}
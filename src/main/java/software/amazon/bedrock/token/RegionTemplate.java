@@ -0,0 +1,64 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.regions.Region;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Precomputed, region specific parts of the canonical request and string to sign of a bearer token.
+ * Templates are built once per region and shared by all mints for that region.
+ */
+final class RegionTemplate {
+
+    private static final ConcurrentMap<Region, RegionTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final String regionId;
+    private final byte[] encodedScopeSuffix;
+    private final byte[] scopeSuffix;
+
+    private RegionTemplate(Region region) {
+        this.regionId = region.id();
+        String scopeTerminator = BedrockTokenGenerator.SERVICE_SIGNING_NAME + "/aws4_request";
+        // The credential scope after the date, as it appears URI-encoded in X-Amz-Credential
+        this.encodedScopeSuffix = ("%2F" + regionId + "%2F" + scopeTerminator.replace("/", "%2F"))
+                .getBytes(StandardCharsets.UTF_8);
+        // The credential scope after the date, as it appears in the string to sign
+        this.scopeSuffix = ("/" + regionId + "/" + scopeTerminator + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param region The AWS region.
+     * @return The shared template for the region.
+     */
+    static RegionTemplate of(Region region) {
+        RegionTemplate template = TEMPLATES.get(region);
+        if (template == null) {
+            template = TEMPLATES.computeIfAbsent(region, RegionTemplate::new);
+        }
+        return template;
+    }
+
+    String regionId() {
+        return regionId;
+    }
+
+    /**
+     * @return "%2F{region}%2Fbedrock%2Faws4_request"
+     */
+    byte[] encodedScopeSuffix() {
+        return encodedScopeSuffix;
+    }
+
+    /**
+     * @return "/{region}/bedrock/aws4_request\n"
+     */
+    byte[] scopeSuffix() {
+        return scopeSuffix;
+    }
+}
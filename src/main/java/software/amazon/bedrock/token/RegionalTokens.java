@@ -0,0 +1,74 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bearer tokens for several regions, minted together from the same credentials at the same instant.
+ * The tokens share one validity window, so the set can be cached and replaced as a unit, and switching
+ * regions on failover never has to wait for a mint.
+ */
+public final class RegionalTokens {
+
+    private final Map<Region, String> tokens;
+    private final Instant issuedAt;
+    private final Instant expiration;
+    private final long refreshAtMillis;
+
+    RegionalTokens(Map<Region, String> tokens, Instant issuedAt, Instant expiration, Duration refreshThreshold) {
+        this.tokens = Collections.unmodifiableMap(new LinkedHashMap<>(tokens));
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.refreshAtMillis = CachedToken.refreshAtMillis(issuedAt, expiration, refreshThreshold);
+    }
+
+    /**
+     * @param region The AWS region.
+     * @return The bearer token for the region, or null if the region was not requested.
+     */
+    public String token(Region region) {
+        return tokens.get(region);
+    }
+
+    /**
+     * @return An unmodifiable map from region to bearer token, in the order the regions were requested.
+     */
+    public Map<Region, String> tokens() {
+        return tokens;
+    }
+
+    /**
+     * @return The signing time of the tokens.
+     */
+    public Instant issuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * @return The instant after which the tokens are no longer accepted: the earlier of the signing time
+     *         plus expiry and the expiration of the credentials.
+     */
+    public Instant expiration() {
+        return expiration;
+    }
+
+    boolean isFresh(long nowMillis) {
+        return nowMillis < refreshAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RegionalTokens{regions=" + tokens.keySet()
+                + ", issuedAt=" + issuedAt
+                + ", expiration=" + expiration + "}";
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Shares one credential resolution between the per-region generators of a token server. The generators
+ * refresh within a minute or so of each other, so credentials resolved by one are reused by the others
+ * for a short window instead of each region resolving its own. Concurrent resolutions share one call to
+ * the delegate. Credentials are never reused within the window of their own expiration, and are dropped
+ * before a CRaC checkpoint.
+ */
+final class SharedCredentialsProvider implements AwsCredentialsProvider {
+
+    /**
+     * How long resolved credentials are reused; covers the refresh jitter of the generators.
+     */
+    static final Duration REUSE_WINDOW = Duration.ofMinutes(2);
+    private static final Object RESOLVE_KEY = new Object();
+
+    private final AwsCredentialsProvider delegate;
+    private final Clock clock;
+    private final SingleFlight<Object, Resolution> resolutions =
+            new SingleFlight<>(BedrockTokenGenerator.DEFAULT_MINT_TIMEOUT);
+    private volatile Resolution last;
+    private final CheckpointHooks.Hook checkpointHook = new CheckpointHooks.Hook() {
+        @Override
+        public void beforeCheckpoint() {
+            last = null;
+        }
+
+        @Override
+        public void afterRestore() {
+        }
+    };
+
+    /**
+     * @param delegate The provider to resolve credentials from.
+     * @param clock The clock timing the reuse window.
+     */
+    SharedCredentialsProvider(AwsCredentialsProvider delegate, Clock clock) {
+        this.delegate = Objects.requireNonNull(delegate, "Credentials provider must not be null");
+        this.clock = Objects.requireNonNull(clock, "Clock must not be null");
+        CheckpointHooks.register(checkpointHook);
+    }
+
+    @Override
+    public AwsCredentials resolveCredentials() {
+        Resolution current = last;
+        if (current != null && current.isReusable(clock.instant())) {
+            return current.credentials;
+        }
+        return resolutions.execute(RESOLVE_KEY, () -> {
+            Resolution resolution = new Resolution(delegate.resolveCredentials(), clock.instant());
+            last = resolution;
+            return resolution;
+        }).credentials;
+    }
+
+    private static final class Resolution {
+        private final AwsCredentials credentials;
+        private final Instant reusableUntil;
+
+        private Resolution(AwsCredentials credentials, Instant resolvedAt) {
+            this.credentials = credentials;
+            Instant until = resolvedAt.plus(REUSE_WINDOW);
+            if (credentials.expirationTime().isPresent()) {
+                Instant expiring = credentials.expirationTime().get().minus(REUSE_WINDOW);
+                until = expiring.isBefore(until) ? expiring : until;
+            }
+            this.reusableUntil = until;
+        }
+
+        private boolean isReusable(Instant now) {
+            return now.isBefore(reusableUntil);
+        }
+    }
+}
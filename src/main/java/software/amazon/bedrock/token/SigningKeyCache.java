@@ -0,0 +1,342 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches SigV4 signing keys, which only depend on the secret access key, the UTC date and the region.
+ * Deriving a signing key takes four chained HMAC-SHA256 operations (kDate, kRegion, kService, kSigning);
+ * with the cache, tokens minted for the same credentials and region on the same day derive it once.
+ * <p>
+ * Entries are keyed by an HMAC fingerprint of the secret access key under a random per-process key, so
+ * the cache never holds the secret itself and the fingerprint is meaningless outside the process. As in
+ * {@link TokenCacheKey}, fingerprints are remembered per secret instance in a {@link WeakIdentityCache},
+ * together with the last key looked up for that secret, so a repeated lookup with the secret of
+ * credentials seen before computes no HMAC and allocates nothing.
+ * Buffers holding the secret and intermediate keys are zeroed right after derivation. Entries for a date
+ * are dropped as soon as a later date is requested, and the cache is cleared if it outgrows its maximum
+ * size. Dropped signing keys are never zeroed, not even by {@link #wipe()} before a checkpoint, since a
+ * concurrent mint may still be signing with them; once unreferenced they are reclaimed by the garbage
+ * collection that precedes a checkpoint.
+ */
+final class SigningKeyCache {
+
+    private static final String SERVICE_SIGNING_NAME = "bedrock";
+    private static final byte[] SECRET_PREFIX = "AWS4".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TERMINATOR = "aws4_request".getBytes(StandardCharsets.UTF_8);
+    private static final int DEFAULT_MAX_ENTRIES = 1024;
+    private static final int REMEMBERED_SECRETS = 1024;
+
+    private final ConcurrentMap<Key, byte[]> signingKeys = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private volatile Fingerprints fingerprints = new Fingerprints();
+    private volatile String currentDateStamp = "";
+
+    SigningKeyCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries The number of signing keys past which the cache is cleared.
+     */
+    SigningKeyCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the signing key for the bedrock service, deriving and caching it if needed.
+     * The returned array is shared and must not be modified.
+     *
+     * @param secretAccessKey The secret access key.
+     * @param dateStamp The UTC date in yyyyMMdd form.
+     * @param region The region name.
+     * @return The signing key.
+     */
+    byte[] signingKey(String secretAccessKey, String dateStamp, String region) {
+        CryptoEngines engines = CryptoEngines.acquire();
+        try {
+            return signingKey(engines, secretAccessKey, dateStamp, region);
+        } finally {
+            engines.release();
+        }
+    }
+
+    /**
+     * Returns the signing key for the bedrock service, deriving and caching it if needed.
+     * The returned array is shared and must not be modified.
+     *
+     * @param engines The engines to hash with.
+     * @param secretAccessKey The secret access key.
+     * @param dateStamp The UTC date in yyyyMMdd form.
+     * @param region The region name.
+     * @return The signing key.
+     */
+    byte[] signingKey(CryptoEngines engines, String secretAccessKey, String dateStamp, String region) {
+        if (!dateStamp.equals(currentDateStamp)) {
+            rollOver(dateStamp);
+        }
+
+        Secret secret = secret(engines, secretAccessKey);
+        Key key = secret.lastKey;
+        if (key == null || !key.matches(dateStamp, region)) {
+            key = new Key(secret.fingerprint, dateStamp, region);
+            secret.lastKey = key;
+        }
+        byte[] signingKey = signingKeys.get(key);
+        if (signingKey == null) {
+            signingKey = deriveSigningKey(engines, secretAccessKey, dateStamp, region, SERVICE_SIGNING_NAME);
+            if (signingKeys.size() >= maxEntries) {
+                clear();
+            }
+            byte[] existing = signingKeys.putIfAbsent(key, signingKey);
+            if (existing != null) {
+                Arrays.fill(signingKey, (byte) 0);
+                signingKey = existing;
+            }
+        }
+        return signingKey;
+    }
+
+    /**
+     * Derives and caches the signing keys of several regions at once. The date key, the first step of the
+     * derivation, only depends on the secret and the date, so it is derived once and shared by all regions.
+     *
+     * @param engines The engines to hash with.
+     * @param secretAccessKey The secret access key.
+     * @param dateStamp The UTC date in yyyyMMdd form.
+     * @param regions The region names.
+     */
+    void prefetch(CryptoEngines engines, String secretAccessKey, String dateStamp, Collection<String> regions) {
+        if (!dateStamp.equals(currentDateStamp)) {
+            rollOver(dateStamp);
+        }
+
+        byte[] fingerprint = secret(engines, secretAccessKey).fingerprint;
+        byte[] dateKey = null;
+        try {
+            for (String region : regions) {
+                Key key = new Key(fingerprint, dateStamp, region);
+                if (signingKeys.containsKey(key)) {
+                    continue;
+                }
+                if (dateKey == null) {
+                    dateKey = deriveDateKey(engines, secretAccessKey, dateStamp);
+                }
+                byte[] signingKey = deriveFromDateKey(engines, dateKey, region, SERVICE_SIGNING_NAME);
+                if (signingKeys.size() >= maxEntries) {
+                    clear();
+                }
+                if (signingKeys.putIfAbsent(key, signingKey) != null) {
+                    Arrays.fill(signingKey, (byte) 0);
+                }
+            }
+        } finally {
+            if (dateKey != null) {
+                Arrays.fill(dateKey, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Removes all cached signing keys.
+     */
+    void clear() {
+        signingKeys.clear();
+    }
+
+    /**
+     * Removes all cached signing keys before a checkpoint. The keys are not zeroed: a mint running
+     * concurrently may still be signing with one, and zeroing it would produce an invalid token that could
+     * then be cached until it expires.
+     */
+    void wipe() {
+        clear();
+    }
+
+    /**
+     * Replaces the fingerprint key with a fresh random one and clears the cache, so that processes restored
+     * from the same checkpoint do not share it.
+     */
+    void rotateFingerprintKey() {
+        fingerprints = new Fingerprints();
+        clear();
+    }
+
+    /**
+     * @return The number of cached signing keys.
+     */
+    int size() {
+        return signingKeys.size();
+    }
+
+    /**
+     * Derives a SigV4 signing key. Intermediate keys, including the prefixed secret, are zeroed once used.
+     *
+     * @param secretAccessKey The secret access key.
+     * @param dateStamp The UTC date in yyyyMMdd form.
+     * @param region The region name.
+     * @param service The service signing name.
+     * @return The signing key.
+     */
+    static byte[] deriveSigningKey(String secretAccessKey, String dateStamp, String region, String service) {
+        CryptoEngines engines = CryptoEngines.acquire();
+        try {
+            return deriveSigningKey(engines, secretAccessKey, dateStamp, region, service);
+        } finally {
+            engines.release();
+        }
+    }
+
+    private static byte[] deriveSigningKey(CryptoEngines engines, String secretAccessKey, String dateStamp,
+                                           String region, String service) {
+        byte[] dateKey = deriveDateKey(engines, secretAccessKey, dateStamp);
+        try {
+            return deriveFromDateKey(engines, dateKey, region, service);
+        } finally {
+            Arrays.fill(dateKey, (byte) 0);
+        }
+    }
+
+    private static byte[] deriveDateKey(CryptoEngines engines, String secretAccessKey, String dateStamp) {
+        byte[] secret = secretAccessKey.getBytes(StandardCharsets.UTF_8);
+        byte[] prefixedSecret = new byte[SECRET_PREFIX.length + secret.length];
+        System.arraycopy(SECRET_PREFIX, 0, prefixedSecret, 0, SECRET_PREFIX.length);
+        System.arraycopy(secret, 0, prefixedSecret, SECRET_PREFIX.length, secret.length);
+        Arrays.fill(secret, (byte) 0);
+
+        try {
+            return engines.hmacSha256(prefixedSecret, dateStamp.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            Arrays.fill(prefixedSecret, (byte) 0);
+        }
+    }
+
+    private static byte[] deriveFromDateKey(CryptoEngines engines, byte[] dateKey, String region, String service) {
+        byte[] regionKey = engines.hmacSha256(dateKey, region.getBytes(StandardCharsets.UTF_8));
+        byte[] serviceKey = engines.hmacSha256(regionKey, service.getBytes(StandardCharsets.UTF_8));
+        byte[] signingKey = engines.hmacSha256(serviceKey, TERMINATOR);
+        Arrays.fill(regionKey, (byte) 0);
+        Arrays.fill(serviceKey, (byte) 0);
+        return signingKey;
+    }
+
+    /**
+     * @return The fingerprint of the secret access key, computed once per secret instance while the instance
+     * stays in use.
+     */
+    private Secret secret(CryptoEngines engines, String secretAccessKey) {
+        Fingerprints current = fingerprints;
+        Secret secret = current.bySecret.get(secretAccessKey);
+        if (secret == null) {
+            secret = new Secret(fingerprint(engines, current.key, secretAccessKey));
+            current.bySecret.put(secretAccessKey, secret);
+        }
+        return secret;
+    }
+
+    /**
+     * @return The HMAC of the secret access key under the per-process fingerprint key.
+     */
+    private static byte[] fingerprint(CryptoEngines engines, byte[] fingerprintKey, String secretAccessKey) {
+        byte[] secret = secretAccessKey.getBytes(StandardCharsets.UTF_8);
+        try {
+            return engines.hmacSha256(fingerprintKey, secret);
+        } finally {
+            Arrays.fill(secret, (byte) 0);
+        }
+    }
+
+    private static byte[] newFingerprintKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private synchronized void rollOver(String dateStamp) {
+        if (dateStamp.compareTo(currentDateStamp) > 0) {
+            currentDateStamp = dateStamp;
+            removeOtherDates(dateStamp);
+        }
+    }
+
+    /**
+     * Removes entries whose date differs from keepDateStamp.
+     */
+    private void removeOtherDates(String keepDateStamp) {
+        Iterator<Key> iterator = signingKeys.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (!keepDateStamp.equals(iterator.next().dateStamp)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * The fingerprint key and the fingerprints computed with it, replaced together so that a fingerprint
+     * computed with a previous key is never returned.
+     */
+    private static final class Fingerprints {
+        private final byte[] key = newFingerprintKey();
+        private final WeakIdentityCache<String, Secret> bySecret = new WeakIdentityCache<>(REMEMBERED_SECRETS);
+    }
+
+    /**
+     * The fingerprint of a secret instance and the last key looked up with it, reused while the date and
+     * region stay the same.
+     */
+    private static final class Secret {
+        private final byte[] fingerprint;
+        private volatile Key lastKey;
+
+        private Secret(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static final class Key {
+        private final byte[] secretFingerprint;
+        private final String dateStamp;
+        private final String region;
+        private final int hashCode;
+
+        private Key(byte[] secretFingerprint, String dateStamp, String region) {
+            this.secretFingerprint = secretFingerprint;
+            this.dateStamp = dateStamp;
+            this.region = region;
+            this.hashCode = 31 * (31 * Arrays.hashCode(secretFingerprint) + dateStamp.hashCode()) + region.hashCode();
+        }
+
+        private boolean matches(String dateStamp, String region) {
+            return this.dateStamp.equals(dateStamp) && this.region.equals(region);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hashCode == that.hashCode
+                    && Arrays.equals(secretFingerprint, that.secretFingerprint)
+                    && dateStamp.equals(that.dateStamp)
+                    && region.equals(that.region);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values with power-of-two buckets: bucket 0 counts zeros and
+ * bucket i counts values in [2^(i-1), 2^i). Recording is a few {@link LongAdder} increments, which stay
+ * uncontended when many threads record similar values; percentiles are approximate, reported as the upper
+ * bound of the bucket they fall into, capped at the maximum.
+ */
+public final class SimpleHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    SimpleHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param value The value to record. Negative values are recorded as 0.
+     */
+    void record(long value) {
+        long v = Math.max(0, value);
+        counts[BUCKETS - Long.numberOfLeadingZeros(v)].increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * @return The number of recorded values.
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts[i].sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return The sum of the recorded values.
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    /**
+     * @return The largest recorded value, or 0 if there is none.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * @return The mean of the recorded values, or 0 if there is none.
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) sum() / count;
+    }
+
+    /**
+     * @param quantile The quantile, between 0 and 1, e.g. 0.99 for the 99th percentile.
+     * @return An upper bound of the value at the quantile, or 0 if there are no values.
+     * @throws IllegalArgumentException if quantile is not between 0 and 1
+     */
+    public long percentile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1.");
+        }
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return max();
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == 0 ? 0 : bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleHistogram{count=" + count()
+                + ", mean=" + mean()
+                + ", p50=" + percentile(0.5)
+                + ", p99=" + percentile(0.99)
+                + ", max=" + max() + "}";
+    }
+}
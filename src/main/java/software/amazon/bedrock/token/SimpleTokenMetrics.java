@@ -0,0 +1,116 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link TokenMetrics} that keeps measurements in lock-free counters and {@link SimpleHistogram}s, for
+ * exporting to a metrics system by periodically reading them.
+ */
+public final class SimpleTokenMetrics implements TokenMetrics {
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final SimpleHistogram mintLatency = new SimpleHistogram();
+    private final SimpleHistogram credentialResolutionLatency = new SimpleHistogram();
+    private final SimpleHistogram tokenAge = new SimpleHistogram();
+
+    /**
+     * Creates metrics with all counters at zero.
+     */
+    public SimpleTokenMetrics() {
+    }
+
+    @Override
+    public void recordMint(long durationNanos) {
+        mintLatency.record(durationNanos);
+    }
+
+    @Override
+    public void recordCredentialResolution(long durationNanos) {
+        credentialResolutionLatency.record(durationNanos);
+    }
+
+    @Override
+    public void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void recordCacheMiss() {
+        cacheMisses.increment();
+    }
+
+    @Override
+    public void recordRefreshFailure() {
+        refreshFailures.increment();
+    }
+
+    @Override
+    public void recordTokenAge(long ageMillis) {
+        tokenAge.record(ageMillis);
+    }
+
+    /**
+     * @return The number of tokens minted.
+     */
+    public long mintCount() {
+        return mintLatency.count();
+    }
+
+    /**
+     * @return The number of cached tokens served without minting.
+     */
+    public long cacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return The number of lookups that had to mint, or wait for, a new token.
+     */
+    public long cacheMissCount() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * @return The number of failed mints and refreshes.
+     */
+    public long refreshFailureCount() {
+        return refreshFailures.sum();
+    }
+
+    /**
+     * @return Signing latency of minted tokens, in nanoseconds.
+     */
+    public SimpleHistogram mintLatencyNanos() {
+        return mintLatency;
+    }
+
+    /**
+     * @return Latency of credential resolution, in nanoseconds.
+     */
+    public SimpleHistogram credentialResolutionLatencyNanos() {
+        return credentialResolutionLatency;
+    }
+
+    /**
+     * @return Age of tokens when handed out by a caching generator, in milliseconds.
+     */
+    public SimpleHistogram tokenAgeMillis() {
+        return tokenAge;
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleTokenMetrics{mintLatencyNanos=" + mintLatency
+                + ", credentialResolutionLatencyNanos=" + credentialResolutionLatency
+                + ", cacheHitCount=" + cacheHitCount()
+                + ", cacheMissCount=" + cacheMissCount()
+                + ", refreshFailureCount=" + refreshFailureCount()
+                + ", tokenAgeMillis=" + tokenAge + "}";
+    }
+}
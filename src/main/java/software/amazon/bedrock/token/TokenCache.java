@@ -0,0 +1,457 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.regions.Region;
+
+import java.lang.ref.WeakReference;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
+
+/**
+ * Holds the most recently minted token of a {@link BedrockTokenGenerator} and hands it out until its
+ * refresh point is reached.
+ * The cached value is an immutable {@link CachedToken} published through a volatile field, so reads
+ * take no lock and allocate nothing.
+ * Mints are coalesced: callers that find the token due for refresh while a mint is already running wait
+ * for that mint instead of starting their own.
+ * When background refresh is enabled, the token is also re-minted on a scheduler ahead of its refresh point,
+ * so that callers normally never mint inline.
+ * When stale-while-revalidate is enabled, callers that find the token due for refresh but not yet expired
+ * get it immediately while the refresh runs on the scheduler, retried with backoff until it succeeds.
+ * Cache hits, misses and the age of handed out tokens are reported to a {@link TokenMetrics}; misses and
+ * background refreshes are also recorded as {@link TokenEvents}.
+ * Before a CRaC checkpoint the cached token is dropped and pending refreshes are cancelled, so a restored
+ * process never serves a token signed before the checkpoint. With background refresh or
+ * stale-while-revalidate a new token is minted right away on the scheduler after a restore; otherwise the
+ * next caller mints inline.
+ * The scheduler and the checkpoint hooks only reference the cache weakly, so a cache that is neither closed
+ * nor referenced any more, along with the generator whose minter it holds, is still garbage collected.
+ */
+final class TokenCache implements AutoCloseable, CheckpointHooks.Hook {
+
+    private static final Object MINT_KEY = new Object();
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 1_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+    private static final AtomicReferenceFieldUpdater<TokenCache, CachedToken> CURRENT =
+            AtomicReferenceFieldUpdater.newUpdater(TokenCache.class, CachedToken.class, "current");
+
+    private final Supplier<CachedToken> minter;
+    private final Clock clock;
+    private final SingleFlight<Object, CachedToken> mints;
+    private final ScheduledExecutorService scheduler;
+    private final boolean backgroundRefresh;
+    private final long leadTimeMillis;
+    private final long jitterMillis;
+    private final boolean staleWhileRevalidate;
+    private final TokenRefreshListener listener;
+    private final TokenMetrics metrics;
+    private final Supplier<Region> region;
+    private final AtomicBoolean revalidating = new AtomicBoolean();
+    private final Object scheduleLock = new Object();
+    private volatile CachedToken current;
+    private volatile boolean degraded;
+    private int failedAttempts;
+    private ScheduledFuture<?> pendingRefresh;
+    private boolean closed;
+
+    private TokenCache(Builder builder) {
+        this.minter = builder.minter;
+        this.clock = builder.clock;
+        this.mints = new SingleFlight<>(builder.mintTimeout);
+        this.scheduler = builder.scheduler;
+        this.backgroundRefresh = builder.backgroundRefresh;
+        this.leadTimeMillis = builder.leadTime.toMillis();
+        this.jitterMillis = builder.jitter.toMillis();
+        this.staleWhileRevalidate = builder.staleWhileRevalidate;
+        this.listener = builder.listener;
+        this.metrics = builder.metrics;
+        this.region = builder.region;
+        if (backgroundRefresh) {
+            revalidating.set(true);
+            schedule(0);
+        }
+        CheckpointHooks.register(this);
+    }
+
+    /**
+     * @param minter Produces a new token. Called whenever the cached token is missing or due for refresh.
+     * @param clock Clock used to decide whether the cached token is still fresh.
+     * @return A new Builder.
+     */
+    static Builder builder(Supplier<CachedToken> minter, Clock clock) {
+        return new Builder(minter, clock);
+    }
+
+    /**
+     * Returns the cached token, minting a new one if there is none or the cached one is due for refresh.
+     * With stale-while-revalidate, a token that is due for refresh but unexpired is returned as is and the
+     * refresh runs in the background.
+     *
+     * @return A bearer token string.
+     */
+    String get() {
+        return get(minter);
+    }
+
+    /**
+     * Like {@link #get()}, but mints with the given minter if a mint is needed and none is in flight.
+     *
+     * @param minter Produces a new token.
+     * @return A bearer token string.
+     */
+    String get(Supplier<CachedToken> minter) {
+        return getCachedToken(minter).token();
+    }
+
+    /**
+     * Like {@link #get(Supplier)}, but returns the token together with its validity window.
+     *
+     * @param minter Produces a new token.
+     * @return The cached or newly minted token.
+     */
+    CachedToken getCachedToken(Supplier<CachedToken> minter) {
+        CachedToken usable = getUsable();
+        if (usable != null) {
+            return usable;
+        }
+        metrics.recordCacheMiss();
+        Object event = TokenEvents.beginCacheMiss();
+        CachedToken minted;
+        try {
+            minted = mints.execute(MINT_KEY, () -> refreshIfStale(minter));
+        } catch (RuntimeException e) {
+            TokenEvents.endCacheMiss(event, region.get(), e);
+            throw e;
+        }
+        TokenEvents.endCacheMiss(event, region.get(), null);
+        metrics.recordTokenAge(clock.millis() - minted.issuedAtMillis());
+        return minted;
+    }
+
+    /**
+     * Returns the cached token if it can be served without minting: it is fresh or, with
+     * stale-while-revalidate, unexpired, in which case a background refresh is triggered.
+     *
+     * @return A bearer token string, or null if a mint is needed.
+     */
+    String getIfUsable() {
+        CachedToken usable = getUsable();
+        return usable != null ? usable.token() : null;
+    }
+
+    /**
+     * Like {@link #getIfUsable()}, but returns the token together with its validity window.
+     *
+     * @return The cached token, or null if a mint is needed.
+     */
+    CachedToken getUsable() {
+        CachedToken cached = current;
+        if (cached != null) {
+            long now = clock.millis();
+            if (cached.isFresh(now)) {
+                return hit(cached, now);
+            }
+            if (staleWhileRevalidate && cached.isUnexpired(now)) {
+                revalidate();
+                return hit(cached, now);
+            }
+        }
+        return null;
+    }
+
+    private CachedToken hit(CachedToken cached, long nowMillis) {
+        metrics.recordCacheHit();
+        metrics.recordTokenAge(nowMillis - cached.issuedAtMillis());
+        return cached;
+    }
+
+    /**
+     * Mints a new token and publishes it as the cached value, joining a mint already in flight if any.
+     *
+     * @return The newly minted token.
+     */
+    CachedToken refresh() {
+        return mints.execute(MINT_KEY, this::mintAndPublish);
+    }
+
+    /**
+     * Drops the given token if it is still the cached one, so that the next caller mints a new token. A token
+     * that has already been replaced is left alone, so concurrent invalidations of the same rejected token
+     * cause a single mint.
+     *
+     * @param token A token previously returned by this cache.
+     */
+    void invalidate(CachedToken token) {
+        CURRENT.compareAndSet(this, token, null);
+    }
+
+    /**
+     * @return The cached token, or null if none has been minted yet.
+     */
+    CachedToken peek() {
+        return current;
+    }
+
+    /**
+     * @return true if the last refresh attempt failed and no later attempt has succeeded.
+     */
+    boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * Cancels any pending background refresh. The cache keeps serving and refreshing tokens inline.
+     */
+    @Override
+    public void close() {
+        synchronized (scheduleLock) {
+            closed = true;
+            if (pendingRefresh != null) {
+                pendingRefresh.cancel(false);
+                pendingRefresh = null;
+            }
+        }
+    }
+
+    /**
+     * Cancels any pending refresh and drops the cached token.
+     */
+    @Override
+    public void beforeCheckpoint() {
+        synchronized (scheduleLock) {
+            if (pendingRefresh != null) {
+                pendingRefresh.cancel(false);
+                pendingRefresh = null;
+            }
+        }
+        current = null;
+    }
+
+    /**
+     * Mints a new token on the scheduler if the cache refreshes in the background and is not closed.
+     * Otherwise the next caller mints inline.
+     */
+    @Override
+    public void afterRestore() {
+        if (backgroundRefresh || staleWhileRevalidate) {
+            revalidating.set(true);
+            schedule(0);
+        }
+    }
+
+    private CachedToken refreshIfStale(Supplier<CachedToken> minter) {
+        CachedToken cached = current;
+        if (cached != null && cached.isFresh(clock.millis())) {
+            return cached;
+        }
+        return mintAndPublish(minter);
+    }
+
+    private CachedToken mintAndPublish() {
+        return mintAndPublish(minter);
+    }
+
+    private CachedToken mintAndPublish(Supplier<CachedToken> minter) {
+        CachedToken minted = minter.get();
+        current = minted;
+        return minted;
+    }
+
+    private void revalidate() {
+        if (revalidating.compareAndSet(false, true)) {
+            schedule(0);
+        }
+    }
+
+    /**
+     * Runs on the scheduler for background refreshes, revalidations and their retries. At most one of these
+     * is pending or running at a time.
+     */
+    private void backgroundRefresh() {
+        CachedToken previous = current;
+        if (previous != null && failedAttempts == 0
+                && clock.millis() < previous.refreshAtMillis() - leadTimeMillis - jitterMillis) {
+            // A caller minted inline before this refresh ran, e.g. right after build or restore
+            onRefreshSuccess(previous);
+            return;
+        }
+        Object event = TokenEvents.beginCacheRefresh();
+        CachedToken minted;
+        try {
+            minted = refresh();
+        } catch (RuntimeException e) {
+            TokenEvents.endCacheRefresh(event, region.get(), failedAttempts + 1, e);
+            onRefreshFailure(e, previous);
+            return;
+        }
+        TokenEvents.endCacheRefresh(event, region.get(), failedAttempts + 1, null);
+        onRefreshSuccess(minted);
+    }
+
+    private void onRefreshSuccess(CachedToken minted) {
+        failedAttempts = 0;
+        if (degraded) {
+            degraded = false;
+            listener.onRefreshRecovered();
+        }
+        if (backgroundRefresh) {
+            long jitter = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis) : 0;
+            schedule(Math.max(0, minted.refreshAtMillis() - leadTimeMillis - jitter - clock.millis()));
+        } else {
+            revalidating.set(false);
+        }
+    }
+
+    private void onRefreshFailure(RuntimeException cause, CachedToken previous) {
+        degraded = true;
+        listener.onRefreshFailure(cause, previous != null ? previous.expiration() : null);
+        if (backgroundRefresh || staleWhileRevalidate) {
+            schedule(retryDelayMillis(++failedAttempts));
+        } else {
+            revalidating.set(false);
+        }
+    }
+
+    /**
+     * Exponential backoff with equal jitter: half of the delay is fixed and half is random.
+     */
+    private static long retryDelayMillis(int attempt) {
+        long delay = Math.min(MAX_RETRY_DELAY_MILLIS, INITIAL_RETRY_DELAY_MILLIS << Math.min(attempt - 1, 16));
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    private void schedule(long delayMillis) {
+        synchronized (scheduleLock) {
+            if (closed) {
+                revalidating.set(false);
+                return;
+            }
+            if (pendingRefresh != null) {
+                pendingRefresh.cancel(false);
+            }
+            pendingRefresh = scheduler.schedule(new RefreshTask(this), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * A scheduled background refresh. Holds the cache weakly, so that the shared scheduler does not keep an
+     * abandoned cache and its generator alive until the next refresh point, and then forever by rescheduling.
+     */
+    private static final class RefreshTask implements Runnable {
+        private final WeakReference<TokenCache> cache;
+
+        private RefreshTask(TokenCache cache) {
+            this.cache = new WeakReference<>(cache);
+        }
+
+        @Override
+        public void run() {
+            TokenCache target = cache.get();
+            if (target != null) {
+                target.backgroundRefresh();
+            }
+        }
+    }
+
+    /**
+     * Builder class for TokenCache.
+     */
+    static final class Builder {
+        private final Supplier<CachedToken> minter;
+        private final Clock clock;
+        private Duration mintTimeout = BedrockTokenGenerator.DEFAULT_MINT_TIMEOUT;
+        private ScheduledExecutorService scheduler;
+        private boolean backgroundRefresh;
+        private Duration leadTime = Duration.ZERO;
+        private Duration jitter = Duration.ZERO;
+        private boolean staleWhileRevalidate;
+        private TokenRefreshListener listener = TokenRefreshListener.noOp();
+        private TokenMetrics metrics = TokenMetrics.noOp();
+        private Supplier<Region> region = () -> null;
+
+        private Builder(Supplier<CachedToken> minter, Clock clock) {
+            this.minter = minter;
+            this.clock = clock;
+        }
+
+        /**
+         * @param mintTimeout How long a caller waits for a mint started by another caller.
+         */
+        Builder mintTimeout(Duration mintTimeout) {
+            this.mintTimeout = mintTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the scheduler used for background refreshes and revalidations.
+         */
+        Builder scheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Enables background refresh.
+         *
+         * @param leadTime How long before the refresh point the background refresh runs.
+         * @param jitter Upper bound of a random extra lead time, spreading refreshes of many generators.
+         */
+        Builder backgroundRefresh(Duration leadTime, Duration jitter) {
+            this.backgroundRefresh = true;
+            this.leadTime = leadTime;
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Enables stale-while-revalidate.
+         */
+        Builder staleWhileRevalidate() {
+            this.staleWhileRevalidate = true;
+            return this;
+        }
+
+        /**
+         * @param listener Receives refresh failure and recovery notifications.
+         */
+        Builder listener(TokenRefreshListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * @param metrics Receives cache hit, miss and token age measurements.
+         */
+        Builder metrics(TokenMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * @param region Supplies the region of the owning generator, used to label events. Read when an event
+         *               ends, so that a region resolved lazily by the first mint labels that mint's events.
+         */
+        Builder region(Supplier<Region> region) {
+            this.region = region;
+            return this;
+        }
+
+        TokenCache build() {
+            if ((backgroundRefresh || staleWhileRevalidate) && scheduler == null) {
+                throw new IllegalStateException("A scheduler is required for background refresh");
+            }
+            return new TokenCache(this);
+        }
+    }
+}
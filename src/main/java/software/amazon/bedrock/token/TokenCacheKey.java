@@ -0,0 +1,152 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.identity.spi.AwsSessionCredentialsIdentity;
+import software.amazon.awssdk.regions.Region;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Identifies a cached token by credential identity, region and expiry.
+ * The credential identity is the access key id plus an HMAC fingerprint of the secret access key and the
+ * session token, if any, under a random per-process key. Two credentials that share an access key id but
+ * not the secret, such as a rotated or mistyped secret, therefore never share a token, and the key retains
+ * neither secret. As in {@link SigningKeyCache}, the fingerprint key is replaced after a CRaC restore.
+ * <p>
+ * The fingerprints of recently used credentials instances are remembered in a {@link WeakIdentityCache},
+ * so looking up a token for credentials seen before, such as those a provider hands out until it
+ * refreshes them, computes no HMAC.
+ */
+final class TokenCacheKey {
+
+    private static final byte SEPARATOR = 0;
+    private static final int REMEMBERED_CREDENTIALS = 1024;
+    private static volatile Fingerprints fingerprints = new Fingerprints();
+    private static final CheckpointHooks.Hook CHECKPOINT_HOOK = new CheckpointHooks.Hook() {
+        @Override
+        public void beforeCheckpoint() {
+        }
+
+        @Override
+        public void afterRestore() {
+            fingerprints = new Fingerprints();
+        }
+    };
+
+    static {
+        CheckpointHooks.register(CHECKPOINT_HOOK);
+    }
+
+    private final String accessKeyId;
+    private final byte[] credentialFingerprint;
+    private final Region region;
+    private final Duration expiry;
+    private final int hashCode;
+
+    private TokenCacheKey(String accessKeyId, byte[] credentialFingerprint, Region region, Duration expiry) {
+        this.accessKeyId = accessKeyId;
+        this.credentialFingerprint = credentialFingerprint;
+        this.region = region;
+        this.expiry = expiry;
+
+        int result = accessKeyId.hashCode();
+        result = 31 * result + Arrays.hashCode(credentialFingerprint);
+        result = 31 * result + region.hashCode();
+        result = 31 * result + expiry.hashCode();
+        this.hashCode = result;
+    }
+
+    /**
+     * @param credentials AWS credentials.
+     * @param region The AWS region.
+     * @param expiry Validated token expiration duration.
+     * @return The key for a token minted with these inputs.
+     */
+    static TokenCacheKey of(AwsCredentials credentials, Region region, Duration expiry) {
+        return new TokenCacheKey(credentials.accessKeyId(), fingerprint(credentials), region, expiry);
+    }
+
+    /**
+     * @return The fingerprint of the credentials, computed once per credentials instance while the instance
+     * stays in use. The returned array is shared and must not be modified.
+     */
+    static byte[] fingerprint(AwsCredentials credentials) {
+        Fingerprints current = fingerprints;
+        byte[] fingerprint = current.byCredentials.get(credentials);
+        if (fingerprint == null) {
+            fingerprint = computeFingerprint(current.key, credentials);
+            current.byCredentials.put(credentials, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return The HMAC of the secret access key, followed by a separator and the session token if there is
+     * one, under the per-process fingerprint key. The buffer holding the secrets is zeroed.
+     */
+    private static byte[] computeFingerprint(byte[] fingerprintKey, AwsCredentials credentials) {
+        byte[] secret = credentials.secretAccessKey().getBytes(StandardCharsets.UTF_8);
+        byte[] input = secret;
+        if (credentials instanceof AwsSessionCredentialsIdentity) {
+            byte[] sessionToken = ((AwsSessionCredentialsIdentity) credentials).sessionToken()
+                    .getBytes(StandardCharsets.UTF_8);
+            input = new byte[secret.length + 1 + sessionToken.length];
+            System.arraycopy(secret, 0, input, 0, secret.length);
+            input[secret.length] = SEPARATOR;
+            System.arraycopy(sessionToken, 0, input, secret.length + 1, sessionToken.length);
+            Arrays.fill(secret, (byte) 0);
+        }
+
+        CryptoEngines engines = CryptoEngines.acquire();
+        try {
+            return engines.hmacSha256(fingerprintKey, input);
+        } finally {
+            engines.release();
+            Arrays.fill(input, (byte) 0);
+        }
+    }
+
+    private static byte[] newFingerprintKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    /**
+     * The fingerprint key and the fingerprints computed with it, replaced together so that a fingerprint
+     * computed with a previous key is never returned.
+     */
+    private static final class Fingerprints {
+        private final byte[] key = newFingerprintKey();
+        private final WeakIdentityCache<AwsCredentials, byte[]> byCredentials =
+                new WeakIdentityCache<>(REMEMBERED_CREDENTIALS);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TokenCacheKey)) {
+            return false;
+        }
+        TokenCacheKey that = (TokenCacheKey) o;
+        return hashCode == that.hashCode
+                && accessKeyId.equals(that.accessKeyId)
+                && Arrays.equals(credentialFingerprint, that.credentialFingerprint)
+                && region.equals(that.region)
+                && expiry.equals(that.expiry);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
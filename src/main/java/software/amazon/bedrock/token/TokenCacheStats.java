@@ -0,0 +1,77 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+/**
+ * Point-in-time statistics of a {@link BedrockTokenCache}.
+ */
+public final class TokenCacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long expirationCount;
+    private final long size;
+
+    TokenCacheStats(long hitCount, long missCount, long evictionCount, long expirationCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+        this.size = size;
+    }
+
+    /**
+     * @return The number of lookups that returned a cached token.
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return The number of lookups that had to mint, or wait for, a new token.
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * @return The number of entries removed to keep the cache within its maximum size.
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return The number of entries removed because their token expired.
+     */
+    public long expirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * @return The number of entries in the cache.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return The ratio of hits to lookups, or 1.0 if there were no lookups.
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenCacheStats{hitCount=" + hitCount
+                + ", missCount=" + missCount
+                + ", evictionCount=" + evictionCount
+                + ", expirationCount=" + expirationCount
+                + ", size=" + size + "}";
+    }
+}
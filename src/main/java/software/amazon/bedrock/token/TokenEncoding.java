@@ -0,0 +1,93 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes a presigned URL into a bearer token: {@code AUTH_PREFIX + Base64(url)}.
+ * The URL bytes are Base64-encoded straight into the token's byte array behind a precomputed prefix, so
+ * the only copy left is the one into the resulting String. The encoding is identical to
+ * {@code Base64.getEncoder()}, i.e. RFC 4648 with padding.
+ * URLs rendered by the SDK signer are copied into a buffer that is zeroed right after encoding, so the
+ * session token and signature they contain do not linger in a reusable buffer, e.g. across a CRaC
+ * checkpoint.
+ */
+final class TokenEncoding {
+
+    private static final byte[] PREFIX = BedrockTokenGenerator.AUTH_PREFIX.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+    private static final byte PAD = '=';
+    private static final int INITIAL_BUFFER_CAPACITY = 2048;
+
+    private TokenEncoding() {
+    }
+
+    /**
+     * @param url The presigned URL, without the scheme and with the token version appended.
+     * @return The bearer token.
+     */
+    static String encode(AsciiBuffer url) {
+        return encode(url.array(), url.length());
+    }
+
+    /**
+     * Encodes a signed URI as rendered by the SDK: the https:// scheme, if present, is dropped and the token
+     * version is appended.
+     *
+     * @param uri The signed URI.
+     * @return The bearer token.
+     */
+    static String encodeSignedUri(String uri) {
+        return encodeSignedUri(uri, new AsciiBuffer(INITIAL_BUFFER_CAPACITY));
+    }
+
+    /**
+     * Like {@link #encodeSignedUri(String)}, rendering the URL into the given buffer and zeroing it afterwards.
+     */
+    static String encodeSignedUri(String uri, AsciiBuffer url) {
+        try {
+            int start = uri.startsWith(BedrockTokenGenerator.HTTPS_PREFIX)
+                    ? BedrockTokenGenerator.HTTPS_PREFIX.length()
+                    : 0;
+            url.appendUtf8(uri, start)
+               .appendUtf8(BedrockTokenGenerator.TOKEN_VERSION, 0);
+            return encode(url);
+        } finally {
+            url.wipe();
+        }
+    }
+
+    static String encode(byte[] src, int length) {
+        byte[] token = new byte[PREFIX.length + 4 * ((length + 2) / 3)];
+        System.arraycopy(PREFIX, 0, token, 0, PREFIX.length);
+
+        int dst = PREFIX.length;
+        int src3 = length - length % 3;
+        for (int i = 0; i < src3; i += 3) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+            token[dst++] = ALPHABET[bits >>> 18];
+            token[dst++] = ALPHABET[(bits >>> 12) & 0x3f];
+            token[dst++] = ALPHABET[(bits >>> 6) & 0x3f];
+            token[dst++] = ALPHABET[bits & 0x3f];
+        }
+        if (length - src3 == 1) {
+            int bits = (src[src3] & 0xff) << 16;
+            token[dst++] = ALPHABET[bits >>> 18];
+            token[dst++] = ALPHABET[(bits >>> 12) & 0x3f];
+            token[dst++] = PAD;
+            token[dst] = PAD;
+        } else if (length - src3 == 2) {
+            int bits = (src[src3] & 0xff) << 16 | (src[src3 + 1] & 0xff) << 8;
+            token[dst++] = ALPHABET[bits >>> 18];
+            token[dst++] = ALPHABET[(bits >>> 12) & 0x3f];
+            token[dst++] = ALPHABET[(bits >>> 6) & 0x3f];
+            token[dst] = PAD;
+        }
+        // Every byte is ASCII, so decoding as ISO-8859-1 is a plain copy
+        return new String(token, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Duration;
+
+/**
+ * Emits Java Flight Recorder events for token minting, credential resolution and the token cache.
+ * <p>
+ * This Java 8 version emits nothing. On Java 11 and later, the multi-release jar replaces it with a version
+ * backed by JFR events (see src/main/java11). Each begin method returns an opaque event handle, or null if
+ * the event is not being recorded, which is passed to the matching end method. Events never carry
+ * credentials, tokens or exception messages.
+ */
+final class TokenEvents {
+
+    private TokenEvents() {
+    }
+
+    static Object beginMint() {
+        return null;
+    }
+
+    /**
+     * @param failure The failure, or null if the mint succeeded.
+     */
+    static void endMint(Object event, Region region, Duration expiry, Throwable failure) {
+    }
+
+    static Object beginCredentialResolution() {
+        return null;
+    }
+
+    /**
+     * @param provider The credentials provider, identified in the event by its class name only.
+     * @param failure The failure, or null if resolution succeeded.
+     */
+    static void endCredentialResolution(Object event, Object provider, Throwable failure) {
+    }
+
+    static Object beginCacheMiss() {
+        return null;
+    }
+
+    /**
+     * @param region The region of the generator owning the cache, or null if unknown.
+     * @param failure The failure, or null if a token was obtained.
+     */
+    static void endCacheMiss(Object event, Region region, Throwable failure) {
+    }
+
+    static Object beginCacheRefresh() {
+        return null;
+    }
+
+    /**
+     * @param region The region of the generator owning the cache, or null if unknown.
+     * @param attempt The attempt number, 1 for the first attempt after a success.
+     * @param failure The failure, or null if the refresh succeeded.
+     */
+    static void endCacheRefresh(Object event, Region region, int attempt, Throwable failure) {
+    }
+}
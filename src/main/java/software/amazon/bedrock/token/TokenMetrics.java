@@ -0,0 +1,63 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+/**
+ * Receives measurements from a {@link BedrockTokenGenerator}, for bridging into any metrics library.
+ * Methods are called on the hot path of token generation, so implementations must be thread-safe, must not
+ * block and should do as little work as possible. {@link SimpleTokenMetrics} is a ready-made
+ * implementation backed by lock-free counters and histograms.
+ */
+public interface TokenMetrics {
+
+    /**
+     * Called after a token was signed.
+     *
+     * @param durationNanos How long signing took, excluding credential resolution.
+     */
+    default void recordMint(long durationNanos) {
+    }
+
+    /**
+     * Called after credentials were resolved for a mint.
+     *
+     * @param durationNanos How long the credentials provider took.
+     */
+    default void recordCredentialResolution(long durationNanos) {
+    }
+
+    /**
+     * Called when a caching generator served its cached token without minting.
+     */
+    default void recordCacheHit() {
+    }
+
+    /**
+     * Called when a caching generator had to mint, or wait for, a new token.
+     */
+    default void recordCacheMiss() {
+    }
+
+    /**
+     * Called when minting or refreshing a token failed, whether inline or in the background.
+     */
+    default void recordRefreshFailure() {
+    }
+
+    /**
+     * Called when a caching generator hands out a token.
+     *
+     * @param ageMillis Time since the token was signed.
+     */
+    default void recordTokenAge(long ageMillis) {
+    }
+
+    /**
+     * @return Metrics that discard all measurements.
+     */
+    static TokenMetrics noOp() {
+        return NoOpTokenMetrics.INSTANCE;
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.time.Instant;
+
+/**
+ * Receives notifications about failed and recovered token refreshes of a caching
+ * {@link BedrockTokenGenerator}. Callbacks run on the thread that attempted the refresh and should return
+ * quickly.
+ */
+public interface TokenRefreshListener {
+
+    /**
+     * Called when a refresh of the cached token failed. While the generator keeps serving the previous token,
+     * it is in a degraded state until {@link #onRefreshRecovered()} is called.
+     *
+     * @param cause The failure.
+     * @param currentTokenExpiration Expiration of the token still being served, or null if there is none.
+     */
+    default void onRefreshFailure(Throwable cause, Instant currentTokenExpiration) {
+    }
+
+    /**
+     * Called when a refresh succeeds after one or more failures.
+     */
+    default void onRefreshRecovered() {
+    }
+
+    /**
+     * @return A listener that ignores all notifications.
+     */
+    static TokenRefreshListener noOp() {
+        return new TokenRefreshListener() {
+        };
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide scheduler that runs background token refreshes for every {@link BedrockTokenGenerator}.
+ * Threads are daemons so an unclosed generator never keeps the JVM alive. The executor is created on
+ * first use.
+ */
+final class TokenRefreshScheduler {
+
+    private static final int THREAD_COUNT = 2;
+
+    private TokenRefreshScheduler() {
+    }
+
+    /**
+     * @return The shared scheduler.
+     */
+    static ScheduledExecutorService shared() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final ScheduledExecutorService INSTANCE = create();
+
+        private static ScheduledExecutorService create() {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "bedrock-token-refresh-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(THREAD_COUNT, threadFactory);
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+}
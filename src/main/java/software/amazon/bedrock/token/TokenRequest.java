@@ -0,0 +1,77 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * One token to mint in a batch: the credentials, region and expiry passed to
+ * {@link BedrockTokenGenerator#getToken(AwsCredentials, Region, Duration)}.
+ */
+public final class TokenRequest {
+
+    private final AwsCredentials credentials;
+    private final Region region;
+    private final Duration expiry;
+
+    private TokenRequest(AwsCredentials credentials, Region region, Duration expiry) {
+        this.credentials = Objects.requireNonNull(credentials, "Credentials must not be null");
+        this.region = Objects.requireNonNull(region, "Region must not be null");
+        this.expiry = expiry;
+    }
+
+    /**
+     * @param credentials AWS credentials.
+     * @param region The AWS region.
+     * @param expiry Token expiration duration (max 12 hours). If null, defaults to 12 hours.
+     * @return A new TokenRequest.
+     * @throws NullPointerException if credentials or region are null
+     */
+    public static TokenRequest create(AwsCredentials credentials, Region region, Duration expiry) {
+        return new TokenRequest(credentials, region, expiry);
+    }
+
+    /**
+     * @param credentials AWS credentials.
+     * @param region The AWS region.
+     * @return A new TokenRequest with the default expiry of 12 hours.
+     * @throws NullPointerException if credentials or region are null
+     */
+    public static TokenRequest create(AwsCredentials credentials, Region region) {
+        return new TokenRequest(credentials, region, null);
+    }
+
+    /**
+     * @return The AWS credentials.
+     */
+    public AwsCredentials credentials() {
+        return credentials;
+    }
+
+    /**
+     * @return The AWS region.
+     */
+    public Region region() {
+        return region;
+    }
+
+    /**
+     * @return The token expiration duration, or null for the default.
+     */
+    public Duration expiry() {
+        return expiry;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenRequest{accessKeyId=" + credentials.accessKeyId()
+                + ", region=" + region
+                + ", expiry=" + expiry + "}";
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+/**
+ * The outcome of one {@link TokenRequest} in a batch: either a token or the exception that prevented
+ * minting it.
+ */
+public final class TokenResult {
+
+    private final TokenRequest request;
+    private final String token;
+    private final RuntimeException error;
+
+    private TokenResult(TokenRequest request, String token, RuntimeException error) {
+        this.request = request;
+        this.token = token;
+        this.error = error;
+    }
+
+    static TokenResult success(TokenRequest request, String token) {
+        return new TokenResult(request, token, null);
+    }
+
+    static TokenResult failure(TokenRequest request, RuntimeException error) {
+        return new TokenResult(request, null, error);
+    }
+
+    /**
+     * @return The request this result belongs to.
+     */
+    public TokenRequest request() {
+        return request;
+    }
+
+    /**
+     * @return true if a token was minted.
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    /**
+     * @return The bearer token, or null if minting failed.
+     */
+    public String token() {
+        return token;
+    }
+
+    /**
+     * @return The exception that prevented minting, or null if a token was minted.
+     */
+    public RuntimeException error() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenResult{request=" + request
+                + (error == null ? ", successful" : ", error=" + error) + "}";
+    }
+}
@@ -0,0 +1,495 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TokenVendingServer serves bearer tokens over HTTP on the loopback interface, so that many processes on a
+ * host, in any language, share one credential chain and one token per region instead of each minting
+ * their own.
+ * <p>
+ * Each configured region is backed by a {@link BedrockTokenGenerator} with background refresh, so requests
+ * are normally served from the cache, and concurrent requests that find no usable token share one mint.
+ * The regions share their credential resolutions: credentials resolved for one region's refresh are reused
+ * by the refreshes of the other regions that follow within a couple of minutes.
+ * <ul>
+ *     <li>{@code GET /token/{region}} returns the token of a configured region as text/plain.</li>
+ *     <li>{@code GET /token} returns the token of the first configured region.</li>
+ * </ul>
+ * Responses carry an ETag that changes with each minted token and a Cache-Control max-age that lasts until
+ * the token's refresh point, so clients can cache the token until then and revalidate with If-None-Match.
+ * Unknown regions get 404, methods other than GET and HEAD get 405, and failed mints get 503.
+ * <p>
+ * The server only binds to the loopback address. Like the ECS container credentials endpoint, it also
+ * requires every request to carry the server's authorization token in the Authorization header, and
+ * rejects requests whose Host header does not name the loopback address and port, so web pages cannot
+ * read tokens through DNS rebinding. Requests without the token get 401 and requests for other hosts get
+ * 403. The token is random unless one is configured; hand it to clients through an environment variable
+ * or an owner-only file.
+ */
+public final class TokenVendingServer implements AutoCloseable {
+
+    static final String TOKEN_PATH = "/token";
+    private static final int DEFAULT_PORT = 9190;
+    private static final int AUTHORIZATION_TOKEN_BYTES = 32;
+
+    private final Map<String, RegionEndpoint> endpoints;
+    private final RegionEndpoint defaultEndpoint;
+    private final Clock clock;
+    private final String authorizationToken;
+    private final byte[] authorizationTokenBytes;
+    private final HttpServer server;
+    private final ExecutorService ownedExecutor;
+
+    private TokenVendingServer(Builder builder) throws IOException {
+        Objects.requireNonNull(builder.regions, "Regions must not be null");
+        if (builder.regions.isEmpty()) {
+            throw new IllegalArgumentException("At least one region is required.");
+        }
+        this.clock = builder.clock != null ? builder.clock : Clock.systemUTC();
+        // One resolution serves the refreshes of all regions
+        AwsCredentialsProvider provider = new SharedCredentialsProvider(builder.provider != null ? builder.provider
+                : DefaultCredentialsProvider.create(), clock);
+        if (builder.authorizationToken != null && builder.authorizationToken.isEmpty()) {
+            throw new IllegalArgumentException("Authorization token must not be empty.");
+        }
+        this.authorizationToken = builder.authorizationToken != null ? builder.authorizationToken
+                : randomAuthorizationToken();
+        this.authorizationTokenBytes = authorizationToken.getBytes(StandardCharsets.UTF_8);
+
+        Map<String, RegionEndpoint> endpoints = new LinkedHashMap<>();
+        for (Region region : builder.regions) {
+            Objects.requireNonNull(region, "Regions must not contain null");
+            if (!endpoints.containsKey(region.id())) {
+                BedrockTokenGenerator.Builder generatorBuilder = BedrockTokenGenerator.builder()
+                        .region(region)
+                        .credentialsProvider(provider)
+                        .expiry(builder.expiry)
+                        .refreshThreshold(builder.refreshThreshold)
+                        .backgroundRefresh(true)
+                        .clock(clock);
+                if (builder.metrics != null) {
+                    generatorBuilder.metrics(builder.metrics);
+                }
+                endpoints.put(region.id(), new RegionEndpoint(generatorBuilder.build()));
+            }
+        }
+        this.endpoints = Collections.unmodifiableMap(endpoints);
+        this.defaultEndpoint = endpoints.values().iterator().next();
+
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 0);
+        } catch (IOException | RuntimeException e) {
+            endpoints.values().forEach(endpoint -> endpoint.generator.close());
+            throw e;
+        }
+        this.server.createContext(TOKEN_PATH, this::handle);
+        if (builder.executor != null) {
+            this.ownedExecutor = null;
+            this.server.setExecutor(builder.executor);
+        } else {
+            this.ownedExecutor = Executors.newFixedThreadPool(
+                    Math.max(2, Runtime.getRuntime().availableProcessors()), daemonThreads());
+            this.server.setExecutor(ownedExecutor);
+        }
+    }
+
+    /**
+     * Returns a builder instance for creating a TokenVendingServer.
+     *
+     * @return A new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts serving requests.
+     *
+     * @return This server.
+     */
+    public TokenVendingServer start() {
+        server.start();
+        return this;
+    }
+
+    /**
+     * @return The port the server is bound to, which is useful when it was built with port 0.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return The token clients must send in the Authorization header.
+     */
+    public String authorizationToken() {
+        return authorizationToken;
+    }
+
+    /**
+     * Stops the server, its background refreshes and, unless an executor was supplied, its worker threads.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        for (RegionEndpoint endpoint : endpoints.values()) {
+            endpoint.generator.close();
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            boolean head = "HEAD".equals(method);
+            if (!isLoopbackHost(exchange.getRequestHeaders().getFirst("Host"))) {
+                send(exchange, 403, "Forbidden", head);
+                return;
+            }
+            if (!isAuthorized(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                send(exchange, 401, "Unauthorized", head);
+                return;
+            }
+            if (!head && !"GET".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                send(exchange, 405, "Method not allowed", head);
+                return;
+            }
+            RegionEndpoint endpoint = endpoint(exchange.getRequestURI().getPath());
+            if (endpoint == null) {
+                send(exchange, 404, "Unknown region", head);
+                return;
+            }
+
+            Rendered rendered;
+            try {
+                rendered = endpoint.render();
+            } catch (RuntimeException e) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, "Token unavailable", head);
+                return;
+            }
+
+            long maxAge = Math.max(0, (rendered.token.refreshAtMillis() - clock.millis()) / 1_000);
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("ETag", rendered.etag);
+            headers.set("Cache-Control", "private, max-age=" + maxAge);
+            if (rendered.etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            headers.set("Content-Type", "text/plain; charset=US-ASCII");
+            sendBody(exchange, 200, rendered.body, head);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * A DNS-rebound page reaches the same socket, but its requests name the attacker's host.
+     */
+    private boolean isLoopbackHost(String host) {
+        if (host == null) {
+            return false;
+        }
+        String suffix = ":" + port();
+        if (!host.endsWith(suffix)) {
+            return false;
+        }
+        String name = host.substring(0, host.length() - suffix.length());
+        return "localhost".equalsIgnoreCase(name) || "127.0.0.1".equals(name) || "[::1]".equals(name);
+    }
+
+    private boolean isAuthorized(String authorization) {
+        return authorization != null
+                && MessageDigest.isEqual(authorizationTokenBytes, authorization.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String randomAuthorizationToken() {
+        byte[] random = new byte[AUTHORIZATION_TOKEN_BYTES];
+        new SecureRandom().nextBytes(random);
+        AsciiBuffer token = new AsciiBuffer(2 * AUTHORIZATION_TOKEN_BYTES);
+        token.appendHex(random);
+        return token.toString();
+    }
+
+    private RegionEndpoint endpoint(String path) {
+        if (TOKEN_PATH.equals(path) || (TOKEN_PATH + "/").equals(path)) {
+            return defaultEndpoint;
+        }
+        if (path.startsWith(TOKEN_PATH + "/")) {
+            return endpoints.get(path.substring(TOKEN_PATH.length() + 1));
+        }
+        return null;
+    }
+
+    private static void send(HttpExchange exchange, int status, String message, boolean head) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=US-ASCII");
+        sendBody(exchange, status, message.getBytes(StandardCharsets.US_ASCII), head);
+    }
+
+    private static void sendBody(HttpExchange exchange, int status, byte[] body, boolean head) throws IOException {
+        if (head) {
+            exchange.getResponseHeaders().set("Content-Length", Integer.toString(body.length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "bedrock-token-vending-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The generator of one region and the response rendered for its current token, which is reused until
+     * the generator hands out a different token. The response is dropped before a CRaC checkpoint.
+     */
+    static final class RegionEndpoint {
+        private final BedrockTokenGenerator generator;
+        private volatile Rendered rendered;
+        private final CheckpointHooks.Hook checkpointHook = new CheckpointHooks.Hook() {
+            @Override
+            public void beforeCheckpoint() {
+                rendered = null;
+            }
+
+            @Override
+            public void afterRestore() {
+            }
+        };
+
+        RegionEndpoint(BedrockTokenGenerator generator) {
+            this.generator = generator;
+            CheckpointHooks.register(checkpointHook);
+        }
+
+        /**
+         * @return The rendered response, or null if none has been rendered since the last checkpoint.
+         */
+        Rendered peek() {
+            return rendered;
+        }
+
+        Rendered render() {
+            CachedToken token = generator.getCachedToken();
+            Rendered current = rendered;
+            if (current == null || current.token != token) {
+                current = new Rendered(token);
+                rendered = current;
+            }
+            return current;
+        }
+    }
+
+    static final class Rendered {
+        private final CachedToken token;
+        private final byte[] body;
+        private final String etag;
+
+        Rendered(CachedToken token) {
+            this.token = token;
+            this.body = token.token().getBytes(StandardCharsets.US_ASCII);
+            this.etag = etag(body);
+        }
+
+        /**
+         * The ETag is a truncated SHA-256 of the token, so it changes with every token without revealing it.
+         */
+        private static String etag(byte[] body) {
+            CryptoEngines engines = CryptoEngines.acquire();
+            try {
+                AsciiBuffer etag = new AsciiBuffer(34);
+                etag.append('"');
+                etag.appendHex(Arrays.copyOf(engines.sha256(body, body.length), 16));
+                etag.append('"');
+                return etag.toString();
+            } finally {
+                engines.release();
+            }
+        }
+    }
+
+    /**
+     * Builder class for TokenVendingServer.
+     */
+    public static class Builder {
+        private Collection<Region> regions;
+        private AwsCredentialsProvider provider;
+        private Duration expiry;
+        private Duration refreshThreshold;
+        private int port = DEFAULT_PORT;
+        private String authorizationToken;
+        private Executor executor;
+        private TokenMetrics metrics;
+        private Clock clock;
+
+        /**
+         * Sets the regions to serve tokens for. The first one is served at /token.
+         *
+         * @param regions The AWS regions. Must not be empty.
+         * @return This builder.
+         */
+        public Builder regions(Collection<Region> regions) {
+            this.regions = regions;
+            return this;
+        }
+
+        /**
+         * Sets the regions to serve tokens for. The first one is served at /token.
+         *
+         * @param regions The AWS regions. Must not be empty.
+         * @return This builder.
+         */
+        public Builder regions(Region... regions) {
+            this.regions = regions != null ? Arrays.asList(regions) : null;
+            return this;
+        }
+
+        /**
+         * Sets the credentials provider shared by all regions. Defaults to DefaultCredentialsProvider.
+         *
+         * @param provider The credentials provider.
+         * @return This builder.
+         */
+        public Builder credentialsProvider(AwsCredentialsProvider provider) {
+            this.provider = provider;
+            return this;
+        }
+
+        /**
+         * Sets the token expiry. Defaults to 12 hours.
+         *
+         * @param expiry The token expiry (max 12 hours).
+         * @return This builder.
+         */
+        public Builder expiry(Duration expiry) {
+            this.expiry = expiry;
+            return this;
+        }
+
+        /**
+         * Sets how long before expiry tokens are replaced, which is also when client caching ends.
+         * Defaults to 5 minutes.
+         *
+         * @param refreshThreshold The refresh threshold. Must not be negative.
+         * @return This builder.
+         */
+        public Builder refreshThreshold(Duration refreshThreshold) {
+            this.refreshThreshold = refreshThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the loopback port to listen on. Use 0 to pick a free port. Defaults to 9190.
+         *
+         * @param port The port.
+         * @return This builder.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Sets the token clients must send in the Authorization header, e.g. to share it with clients through
+         * configuration. Defaults to a random 256-bit token, available from
+         * {@link TokenVendingServer#authorizationToken()}.
+         *
+         * @param authorizationToken The authorization token. Must not be empty.
+         * @return This builder.
+         */
+        public Builder authorizationToken(String authorizationToken) {
+            this.authorizationToken = authorizationToken;
+            return this;
+        }
+
+        /**
+         * Sets the executor that handles requests. Defaults to a fixed pool of daemon threads owned by the
+         * server.
+         *
+         * @param executor The executor.
+         * @return This builder.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the metrics of the underlying generators. Defaults to {@link TokenMetrics#noOp()}.
+         *
+         * @param metrics The metrics.
+         * @return This builder.
+         */
+        public Builder metrics(TokenMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Builds a TokenVendingServer bound to the loopback address. Call {@link TokenVendingServer#start()}
+         * to start serving.
+         *
+         * @return A new TokenVendingServer instance
+         * @throws NullPointerException if regions is null or contains null
+         * @throws IllegalArgumentException if regions is empty, if the authorization token is empty, if expiry
+         *                                  is less than or equal to 0 or greater than 12 hours, if the refresh
+         *                                  threshold is negative, or if the port is out of range
+         * @throws UncheckedIOException if the port cannot be bound
+         */
+        public TokenVendingServer build() {
+            try {
+                return new TokenVendingServer(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to bind token vending server to port " + port, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * UnixSocketTokenClient fetches tokens from a {@link UnixSocketTokenServer} over one persistent connection.
+ * Requests over the connection are serialized, so use one client per thread for concurrent fetches. Unix
+ * domain sockets require Java 16 or later; on older JVMs {@link #connect(Path)} throws
+ * UnsupportedOperationException.
+ */
+public final class UnixSocketTokenClient implements AutoCloseable {
+
+    private static final int MAX_RESPONSE_LENGTH = 64 * 1024;
+
+    private final Path path;
+    private final SocketChannel channel;
+    private final ByteBuffer request = ByteBuffer.allocate(
+            UnixSocketTokenServer.REQUEST_HEADER_LENGTH + UnixSocketTokenServer.MAX_REGION_LENGTH);
+    private ByteBuffer response = ByteBuffer.allocate(2048);
+
+    private UnixSocketTokenClient(Path path, SocketChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Connects to a token server.
+     *
+     * @param path The socket path of the server.
+     * @return A connected client.
+     * @throws SdkClientException if the connection fails
+     * @throws UnsupportedOperationException if the JVM does not support Unix domain sockets
+     */
+    public static UnixSocketTokenClient connect(Path path) {
+        Objects.requireNonNull(path, "Path must not be null");
+        try {
+            return new UnixSocketTokenClient(path, UnixSockets.connect(path));
+        } catch (IOException e) {
+            throw SdkClientException.create("Unable to connect to token server at " + path, e);
+        }
+    }
+
+    /**
+     * Fetches the token of the server's first configured region.
+     *
+     * @return The bearer token.
+     * @throws SdkClientException if the server could not provide a token or the connection failed
+     */
+    public String getToken() {
+        return fetch(null);
+    }
+
+    /**
+     * Fetches the token of a region.
+     *
+     * @param region The AWS region.
+     * @return The bearer token.
+     * @throws IllegalArgumentException if the server does not serve the region, or its id is too long
+     * @throws SdkClientException if the server could not provide a token or the connection failed
+     */
+    public String getToken(Region region) {
+        Objects.requireNonNull(region, "Region must not be null");
+        if (region.id().length() > UnixSocketTokenServer.MAX_REGION_LENGTH) {
+            throw new IllegalArgumentException("Region id is too long: " + region.id());
+        }
+        return fetch(region.id());
+    }
+
+    /**
+     * Closes the connection.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Closing; nothing to do.
+        }
+    }
+
+    private synchronized String fetch(String regionId) {
+        try {
+            request.clear();
+            request.putShort((short) (regionId != null ? regionId.length() : 0));
+            if (regionId != null) {
+                request.put(regionId.getBytes(StandardCharsets.US_ASCII));
+            }
+            request.flip();
+            while (request.hasRemaining()) {
+                channel.write(request);
+            }
+
+            readFully(0, UnixSocketTokenServer.RESPONSE_HEADER_LENGTH);
+            byte status = response.get(0);
+            int length = response.getInt(1);
+            if (length < 0 || length > MAX_RESPONSE_LENGTH) {
+                close();
+                throw SdkClientException.create("Invalid response from token server at " + path);
+            }
+            if (response.capacity() < UnixSocketTokenServer.RESPONSE_HEADER_LENGTH + length) {
+                ByteBuffer larger = ByteBuffer.allocate(UnixSocketTokenServer.RESPONSE_HEADER_LENGTH + length);
+                larger.put(response.array(), 0, UnixSocketTokenServer.RESPONSE_HEADER_LENGTH);
+                response = larger;
+            }
+            readFully(UnixSocketTokenServer.RESPONSE_HEADER_LENGTH, UnixSocketTokenServer.RESPONSE_HEADER_LENGTH
+                    + length);
+            String payload = new String(response.array(), UnixSocketTokenServer.RESPONSE_HEADER_LENGTH, length,
+                    StandardCharsets.US_ASCII);
+            switch (status) {
+                case UnixSocketTokenServer.STATUS_OK:
+                    return payload;
+                case UnixSocketTokenServer.STATUS_UNKNOWN_REGION:
+                    throw new IllegalArgumentException(payload + ": " + regionId);
+                default:
+                    throw SdkClientException.create(payload + " from token server at " + path);
+            }
+        } catch (IOException e) {
+            close();
+            throw SdkClientException.create("Unable to fetch token from token server at " + path, e);
+        }
+    }
+
+    private void readFully(int from, int to) throws IOException {
+        response.limit(to).position(from);
+        while (response.hasRemaining()) {
+            if (channel.read(response) < 0) {
+                throw new IOException("Connection closed by token server");
+            }
+        }
+    }
+}
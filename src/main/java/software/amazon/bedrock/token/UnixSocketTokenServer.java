@@ -0,0 +1,605 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * UnixSocketTokenServer serves bearer tokens over a Unix domain socket, so that co-located processes share
+ * one credential chain and one token per region without the connection overhead of loopback TCP, and with
+ * access controlled by file permissions. Unix domain sockets require Java 16 or later; on older JVMs
+ * {@link Builder#build()} throws UnsupportedOperationException.
+ * <p>
+ * Each configured region is backed by a {@link BedrockTokenGenerator} with background refresh, so requests
+ * are normally answered from a response pre-rendered for the current token. Clients keep a connection open
+ * and send any number of requests over it, one at a time:
+ * <ul>
+ *     <li>Request: a 2-byte big-endian length n (at most 255), then the n-byte US-ASCII region id. A length
+ *     of 0 requests the token of the first configured region.</li>
+ *     <li>Response: a 1-byte status, a 4-byte big-endian length n, then n bytes: the US-ASCII token if the
+ *     status is {@code 0}, otherwise a US-ASCII error message. Status {@code 1} means the region is not
+ *     configured, {@code 2} that no token could be minted, and {@code 3} that the request was malformed,
+ *     after which the server closes the connection.</li>
+ * </ul>
+ * Every open connection is served by its own thread, up to a maximum number of connections. A connection
+ * beyond the maximum gets a status {@code 2} response and is closed right away.
+ * {@link UnixSocketTokenClient} implements this protocol for Java clients.
+ * <p>
+ * The socket file is created with owner-only permissions by default, and only becomes visible at its path
+ * after its permissions are set.
+ */
+public final class UnixSocketTokenServer implements AutoCloseable {
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_UNKNOWN_REGION = 1;
+    static final byte STATUS_UNAVAILABLE = 2;
+    static final byte STATUS_BAD_REQUEST = 3;
+    static final int REQUEST_HEADER_LENGTH = 2;
+    static final int RESPONSE_HEADER_LENGTH = 5;
+    static final int MAX_REGION_LENGTH = 255;
+
+    private static final byte[] UNKNOWN_REGION = frame(STATUS_UNKNOWN_REGION, "Unknown region");
+    private static final byte[] UNAVAILABLE = frame(STATUS_UNAVAILABLE, "Token unavailable");
+    private static final byte[] BAD_REQUEST = frame(STATUS_BAD_REQUEST, "Region id too long");
+    private static final byte[] TOO_MANY_CONNECTIONS = frame(STATUS_UNAVAILABLE, "Too many connections");
+    private static final int DEFAULT_MAX_CONNECTIONS = 64;
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 10;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1_000;
+
+    private final Path path;
+    private final Endpoint[] endpoints;
+    private final ServerSocketChannel channel;
+    private final Object socketFileKey;
+    private final int maxConnections;
+    private final ThreadPoolExecutor connectionThreads;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    private UnixSocketTokenServer(Builder builder) throws IOException {
+        Objects.requireNonNull(builder.path, "Path must not be null");
+        Objects.requireNonNull(builder.regions, "Regions must not be null");
+        if (builder.regions.isEmpty()) {
+            throw new IllegalArgumentException("At least one region is required.");
+        }
+        if (builder.maxConnections <= 0) {
+            throw new IllegalArgumentException("Maximum connections must be greater than 0.");
+        }
+        this.maxConnections = builder.maxConnections;
+        Set<PosixFilePermission> permissions = builder.permissions != null
+                ? EnumSet.copyOf(builder.permissions)
+                : EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+        if (!UnixSockets.isSupported()) {
+            throw new UnsupportedOperationException("Unix domain sockets require Java 16 or later");
+        }
+        this.path = builder.path.toAbsolutePath();
+        Clock clock = builder.clock != null ? builder.clock : Clock.systemUTC();
+        // One resolution serves the refreshes of all regions
+        AwsCredentialsProvider provider = new SharedCredentialsProvider(builder.provider != null ? builder.provider
+                : DefaultCredentialsProvider.create(), clock);
+
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        for (Region region : builder.regions) {
+            Objects.requireNonNull(region, "Regions must not contain null");
+            if (!endpoints.containsKey(region.id())) {
+                BedrockTokenGenerator.Builder generatorBuilder = BedrockTokenGenerator.builder()
+                        .region(region)
+                        .credentialsProvider(provider)
+                        .expiry(builder.expiry)
+                        .refreshThreshold(builder.refreshThreshold)
+                        .backgroundRefresh(true)
+                        .clock(clock);
+                if (builder.metrics != null) {
+                    generatorBuilder.metrics(builder.metrics);
+                }
+                endpoints.put(region.id(), new Endpoint(region, generatorBuilder.build()));
+            }
+        }
+        this.endpoints = endpoints.values().toArray(new Endpoint[0]);
+
+        try {
+            this.channel = bind(path, permissions);
+        } catch (IOException | RuntimeException e) {
+            closeGenerators();
+            throw e;
+        }
+        this.socketFileKey = fileKey(path);
+        AtomicInteger threadNumber = new AtomicInteger();
+        // One thread accepts, and one serves each connection; the connection limit keeps the queue empty
+        int threads = Math.min(maxConnections, Integer.MAX_VALUE - 1) + 1;
+        this.connectionThreads = new ThreadPoolExecutor(threads, threads,
+                IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "bedrock-token-uds-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        connectionThreads.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns a builder instance for creating a UnixSocketTokenServer.
+     *
+     * @return A new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts accepting connections.
+     *
+     * @return This server.
+     */
+    public UnixSocketTokenServer start() {
+        connectionThreads.execute(this::acceptConnections);
+        return this;
+    }
+
+    /**
+     * @return The absolute path of the socket.
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Stops accepting connections, closes open connections, deletes the socket file unless another server
+     * has replaced it, and stops the background refreshes.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        closeQuietly(channel);
+        for (SocketChannel connection : connections) {
+            closeQuietly(connection);
+        }
+        connectionThreads.shutdown();
+        try {
+            // Leave the file alone if another server has replaced it since.
+            if (socketFileKey == null || socketFileKey.equals(fileKey(path))) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            // Removed by someone else; nothing left to clean up.
+        }
+        closeGenerators();
+    }
+
+    /**
+     * Binds the socket in a new owner-only directory next to the path, sets its permissions and then moves
+     * it into place, so that no other user can connect before the permissions apply.
+     */
+    private static ServerSocketChannel bind(Path path, Set<PosixFilePermission> permissions) throws IOException {
+        if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)
+                && !Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther()) {
+            throw new FileAlreadyExistsException(path.toString(), null, "Not a socket");
+        }
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        Path directory = posix
+                ? Files.createTempDirectory(path.getParent(), ".btv",
+                        PosixFilePermissions.asFileAttribute(EnumSet.of(PosixFilePermission.OWNER_READ,
+                                PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE)))
+                : Files.createTempDirectory(path.getParent(), ".btv");
+        Path temporary = directory.resolve("s");
+        ServerSocketChannel channel = null;
+        try {
+            channel = UnixSockets.bind(temporary);
+            if (posix) {
+                Files.setPosixFilePermissions(temporary, permissions);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            Files.deleteIfExists(temporary);
+            throw e;
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static Object fileKey(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).fileKey();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void acceptConnections() {
+        long backoffMillis = 0;
+        while (!closed) {
+            SocketChannel connection;
+            try {
+                connection = channel.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                // Failures such as running out of file descriptors persist, so retrying at once would spin
+                backoffMillis = acceptBackoffMillis(backoffMillis);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+            backoffMillis = 0;
+            // Only this thread adds connections, so the count cannot grow past the check
+            if (connections.size() >= maxConnections) {
+                reject(connection);
+                continue;
+            }
+            connections.add(connection);
+            if (closed) {
+                closeQuietly(connection);
+                return;
+            }
+            connectionThreads.execute(() -> serve(connection));
+        }
+    }
+
+    /**
+     * @param previousMillis The previous delay, or 0 after a successful accept.
+     * @return The delay before the next accept, doubling from 10 milliseconds up to 1 second.
+     */
+    static long acceptBackoffMillis(long previousMillis) {
+        return previousMillis == 0 ? MIN_ACCEPT_BACKOFF_MILLIS
+                : Math.min(previousMillis * 2, MAX_ACCEPT_BACKOFF_MILLIS);
+    }
+
+    private static void reject(SocketChannel connection) {
+        try {
+            write(connection, ByteBuffer.allocate(TOO_MANY_CONNECTIONS.length), TOO_MANY_CONNECTIONS);
+        } catch (IOException e) {
+            // The client went away.
+        } finally {
+            closeQuietly(connection);
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        ByteBuffer request = ByteBuffer.allocate(REQUEST_HEADER_LENGTH + MAX_REGION_LENGTH);
+        ByteBuffer response = ByteBuffer.allocate(2048);
+        try {
+            while (readFully(connection, request, 0, REQUEST_HEADER_LENGTH)) {
+                int length = request.getShort(0) & 0xFFFF;
+                if (length > MAX_REGION_LENGTH) {
+                    response = write(connection, response, BAD_REQUEST);
+                    return;
+                }
+                if (!readFully(connection, request, REQUEST_HEADER_LENGTH, REQUEST_HEADER_LENGTH + length)) {
+                    return;
+                }
+                Endpoint endpoint = endpoint(request.array(), REQUEST_HEADER_LENGTH, length);
+                response = write(connection, response, endpoint != null ? endpoint.response() : UNKNOWN_REGION);
+            }
+        } catch (IOException e) {
+            // The client went away or the server is closing.
+        } finally {
+            connections.remove(connection);
+            closeQuietly(connection);
+        }
+    }
+
+    private Endpoint endpoint(byte[] request, int offset, int length) {
+        if (length == 0) {
+            return endpoints[0];
+        }
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.matches(request, offset, length)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    private static boolean readFully(SocketChannel connection, ByteBuffer buffer, int from, int to)
+            throws IOException {
+        buffer.limit(to).position(from);
+        while (buffer.hasRemaining()) {
+            if (connection.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the frame through a buffer reused across requests, which grows if a frame does not fit.
+     *
+     * @return The buffer to use for the next write.
+     */
+    private static ByteBuffer write(SocketChannel connection, ByteBuffer buffer, byte[] frame) throws IOException {
+        if (buffer.capacity() < frame.length) {
+            buffer = ByteBuffer.allocate(frame.length);
+        }
+        buffer.clear();
+        buffer.put(frame).flip();
+        while (buffer.hasRemaining()) {
+            connection.write(buffer);
+        }
+        return buffer;
+    }
+
+    static byte[] frame(byte status, byte[] payload) {
+        return ByteBuffer.allocate(RESPONSE_HEADER_LENGTH + payload.length)
+                .put(status)
+                .putInt(payload.length)
+                .put(payload)
+                .array();
+    }
+
+    private static byte[] frame(byte status, String message) {
+        return frame(status, message.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void closeGenerators() {
+        for (Endpoint endpoint : endpoints) {
+            endpoint.generator.close();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Closing; nothing to do.
+        }
+    }
+
+    /**
+     * The generator of one region and the response frame rendered for its current token, which is reused
+     * until the generator hands out a different token. The frame is dropped before a CRaC checkpoint.
+     */
+    static final class Endpoint {
+        private final byte[] regionId;
+        private final BedrockTokenGenerator generator;
+        private volatile Rendered rendered;
+        private final CheckpointHooks.Hook checkpointHook = new CheckpointHooks.Hook() {
+            @Override
+            public void beforeCheckpoint() {
+                rendered = null;
+            }
+
+            @Override
+            public void afterRestore() {
+            }
+        };
+
+        Endpoint(Region region, BedrockTokenGenerator generator) {
+            this.regionId = region.id().getBytes(StandardCharsets.US_ASCII);
+            this.generator = generator;
+            CheckpointHooks.register(checkpointHook);
+        }
+
+        /**
+         * @return The rendered response, or null if none has been rendered since the last checkpoint.
+         */
+        Rendered peek() {
+            return rendered;
+        }
+
+        boolean matches(byte[] request, int offset, int length) {
+            if (length != regionId.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (request[offset + i] != regionId[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        byte[] response() {
+            CachedToken token;
+            try {
+                token = generator.getCachedToken();
+            } catch (RuntimeException e) {
+                // Any failure to mint, not just SdkClientException, must not kill the connection's thread
+                return UNAVAILABLE;
+            }
+            Rendered current = rendered;
+            if (current == null || current.token != token) {
+                current = new Rendered(token);
+                rendered = current;
+            }
+            return current.frame;
+        }
+    }
+
+    static final class Rendered {
+        private final CachedToken token;
+        private final byte[] frame;
+
+        Rendered(CachedToken token) {
+            this.token = token;
+            this.frame = frame(STATUS_OK, token.token().getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Builder class for UnixSocketTokenServer.
+     */
+    public static class Builder {
+        private Path path;
+        private Collection<Region> regions;
+        private AwsCredentialsProvider provider;
+        private Duration expiry;
+        private Duration refreshThreshold;
+        private Set<PosixFilePermission> permissions;
+        private TokenMetrics metrics;
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        private Clock clock;
+
+        /**
+         * Sets the path of the socket file. Its directory must exist, and the path must be short enough for
+         * a socket address (about 100 bytes) even with about 25 characters added, since the socket is bound
+         * in a temporary directory next to it first. An existing socket file at the path is replaced.
+         *
+         * @param path The socket path.
+         * @return This builder.
+         */
+        public Builder path(Path path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * Sets the regions to serve tokens for. The first one is served for requests without a region.
+         *
+         * @param regions The AWS regions. Must not be empty.
+         * @return This builder.
+         */
+        public Builder regions(Collection<Region> regions) {
+            this.regions = regions;
+            return this;
+        }
+
+        /**
+         * Sets the regions to serve tokens for. The first one is served for requests without a region.
+         *
+         * @param regions The AWS regions. Must not be empty.
+         * @return This builder.
+         */
+        public Builder regions(Region... regions) {
+            this.regions = regions != null ? Arrays.asList(regions) : null;
+            return this;
+        }
+
+        /**
+         * Sets the credentials provider shared by all regions. Defaults to DefaultCredentialsProvider.
+         *
+         * @param provider The credentials provider.
+         * @return This builder.
+         */
+        public Builder credentialsProvider(AwsCredentialsProvider provider) {
+            this.provider = provider;
+            return this;
+        }
+
+        /**
+         * Sets the token expiry. Defaults to 12 hours.
+         *
+         * @param expiry The token expiry (max 12 hours).
+         * @return This builder.
+         */
+        public Builder expiry(Duration expiry) {
+            this.expiry = expiry;
+            return this;
+        }
+
+        /**
+         * Sets how long before expiry tokens are replaced. Defaults to 5 minutes.
+         *
+         * @param refreshThreshold The refresh threshold. Must not be negative.
+         * @return This builder.
+         */
+        public Builder refreshThreshold(Duration refreshThreshold) {
+            this.refreshThreshold = refreshThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the permissions of the socket file. Connecting requires write permission, so e.g. adding
+         * GROUP_WRITE lets processes of the file's group fetch tokens. Ignored on file systems without POSIX
+         * permissions. Defaults to owner read and write.
+         *
+         * @param permissions The socket file permissions.
+         * @return This builder.
+         */
+        public Builder permissions(Set<PosixFilePermission> permissions) {
+            this.permissions = permissions;
+            return this;
+        }
+
+        /**
+         * Sets the metrics of the underlying generators. Defaults to {@link TokenMetrics#noOp()}.
+         *
+         * @param metrics The metrics.
+         * @return This builder.
+         */
+        public Builder metrics(TokenMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of open connections, each served by its own thread. Connections beyond it
+         * are answered with status 2 and closed. Defaults to 64.
+         *
+         * @param maxConnections The maximum number of connections. Must be greater than 0.
+         * @return This builder.
+         */
+        public Builder maxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Builds a UnixSocketTokenServer bound to the path. Call {@link UnixSocketTokenServer#start()} to
+         * start serving.
+         *
+         * @return A new UnixSocketTokenServer instance
+         * @throws NullPointerException if path or regions is null, or regions contains null
+         * @throws IllegalArgumentException if regions is empty, if expiry is less than or equal to 0 or greater
+         *                                  than 12 hours, if the refresh threshold is negative, or if the
+         *                                  maximum number of connections is not positive
+         * @throws UnsupportedOperationException if the JVM does not support Unix domain sockets
+         * @throws UncheckedIOException if the socket cannot be bound, e.g. because a file that is not a socket
+         *                              exists at the path
+         */
+        public UnixSocketTokenServer build() {
+            try {
+                return new UnixSocketTokenServer(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to bind token server socket to " + path, e);
+            }
+        }
+    }
+}
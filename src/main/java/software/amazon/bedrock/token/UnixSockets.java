@@ -0,0 +1,49 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Opens Unix domain socket channels.
+ * <p>
+ * This Java 8 version does not support them. On Java 16 and later, the multi-release jar replaces it with a
+ * version backed by UnixDomainSocketAddress (see src/main/java16).
+ */
+final class UnixSockets {
+
+    private UnixSockets() {
+    }
+
+    /**
+     * @return true if Unix domain sockets are supported by this JVM.
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * @param path The path to bind to. Must not exist.
+     * @return A blocking server channel bound to the path.
+     */
+    static ServerSocketChannel bind(Path path) throws IOException {
+        throw unsupported();
+    }
+
+    /**
+     * @param path The path of a bound socket.
+     * @return A blocking channel connected to the socket.
+     */
+    static SocketChannel connect(Path path) throws IOException {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Unix domain sockets require Java 16 or later");
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A small, lock-free cache of values derived from objects, looked up by object identity. Used to remember
+ * the fingerprints of credentials that callers pass again and again, such as the instance a credentials
+ * provider hands out until it refreshes, so that looking one up costs an identity hash and a reference
+ * comparison instead of an HMAC.
+ * <p>
+ * The cache is direct-mapped: each object has a single slot, chosen by its identity hash, and a new entry
+ * replaces whatever the slot held. Objects are only held weakly, so the cache never keeps credentials
+ * alive; the value of a collected object stays in its slot until replaced.
+ *
+ * @param <K> The type of the objects.
+ * @param <V> The type of the derived values.
+ */
+final class WeakIdentityCache<K, V> {
+
+    private final AtomicReferenceArray<Entry<K, V>> slots;
+    private final int mask;
+
+    /**
+     * @param capacity The number of slots, rounded up to a power of two.
+     */
+    WeakIdentityCache(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param key The object.
+     * @return The value cached for this very object, or null if there is none.
+     */
+    V get(K key) {
+        Entry<K, V> entry = slots.get(index(key));
+        return entry != null && entry.get() == key ? entry.value : null;
+    }
+
+    /**
+     * Caches a value for the object, replacing the entry of any other object that shares its slot.
+     *
+     * @param key The object.
+     * @param value The value derived from it.
+     */
+    void put(K key, V value) {
+        slots.set(index(key), new Entry<>(key, value));
+    }
+
+    private int index(K key) {
+        int hash = System.identityHashCode(key);
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static final class Entry<K, V> extends WeakReference<K> {
+        private final V value;
+
+        private Entry(K key, V value) {
+            super(key);
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * BedrockHttpClient sends requests through a JDK {@link HttpClient} with the Authorization header of a
+ * {@link BedrockTokenGenerator}. It is only available on Java 11 and later, packaged under
+ * META-INF/versions/11.
+ * <p>
+ * Use a generator with caching or background refresh: the header is then the generator's pre-rendered
+ * {@link AuthorizationHeader}, so sending a request neither mints nor concatenates. If the service responds
+ * with 401, the token is invalidated and the request is retried once with a newly minted token, so a token
+ * revoked before its refresh point is replaced on the first rejection. Concurrent rejections of the same
+ * token share a single mint. A token minted less than 10 seconds before its rejection is kept and the
+ * rejection returned, since a new token from the same credentials would fail alike; 403 responses, which
+ * deny the request rather than the token, are never retried. Retried requests resend their body, so body
+ * publishers must support being subscribed to more than once, as those of {@link HttpRequest.BodyPublishers}
+ * do.
+ */
+public final class BedrockHttpClient {
+
+    private final HttpClient client;
+    private final BedrockTokenGenerator generator;
+    private final Executor executor;
+
+    private BedrockHttpClient(HttpClient client, BedrockTokenGenerator generator) {
+        this.client = Objects.requireNonNull(client, "HttpClient must not be null");
+        this.generator = Objects.requireNonNull(generator, "Generator must not be null");
+        this.executor = client.executor().orElse(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a BedrockHttpClient.
+     *
+     * @param client The HTTP client that sends the requests.
+     * @param generator The generator providing the tokens, normally with caching or background refresh.
+     * @return A new BedrockHttpClient.
+     * @throws NullPointerException if client or generator is null
+     */
+    public static BedrockHttpClient create(HttpClient client, BedrockTokenGenerator generator) {
+        return new BedrockHttpClient(client, generator);
+    }
+
+    /**
+     * @return The underlying HTTP client.
+     */
+    public HttpClient httpClient() {
+        return client;
+    }
+
+    /**
+     * Sends a request with the Authorization header, retrying once with a new token if it is rejected with 401.
+     *
+     * @param request The request. An Authorization header it carries is replaced.
+     * @param handler The response body handler.
+     * @param <T> The response body type.
+     * @return The response, which is the response of the retry if the first attempt was rejected and retried.
+     * @throws IOException if sending or receiving fails
+     * @throws InterruptedException if interrupted while waiting for the response
+     * @throws SdkClientException if no token could be minted
+     * @see HttpClient#send(HttpRequest, HttpResponse.BodyHandler)
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        AuthorizationHeader header = generator.getAuthorizationHeader();
+        HttpResponse<T> response = client.send(authorize(request, header), handler);
+        if (!isRejected(response) || !generator.invalidateRejected(header)) {
+            return response;
+        }
+        discard(response);
+        return client.send(authorize(request, generator.getAuthorizationHeader()), handler);
+    }
+
+    /**
+     * Sends a request asynchronously with the Authorization header, retrying once with a new token if it is
+     * rejected with 401. If no cached token can be served, it is minted on the HTTP client's executor, or the
+     * common fork-join pool if it has none, rather than on the calling thread.
+     *
+     * @param request The request. An Authorization header it carries is replaced.
+     * @param handler The response body handler.
+     * @param <T> The response body type.
+     * @return A future completed with the response, or completed exceptionally if sending fails or no token
+     *         could be minted.
+     * @see HttpClient#sendAsync(HttpRequest, HttpResponse.BodyHandler)
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> handler) {
+        return authorizationHeaderAsync().thenCompose(header ->
+                client.sendAsync(authorize(request, header), handler).thenCompose(response -> {
+                    if (!isRejected(response) || !generator.invalidateRejected(header)) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    discard(response);
+                    return authorizationHeaderAsync().thenCompose(retryHeader ->
+                            client.sendAsync(authorize(request, retryHeader), handler));
+                }));
+    }
+
+    /**
+     * Returns a copy of the request with the Authorization header of the generator's current token.
+     *
+     * @param request The request. An Authorization header it carries is replaced.
+     * @return The authorized request.
+     * @throws SdkClientException if no token could be minted
+     */
+    public HttpRequest authorize(HttpRequest request) {
+        return authorize(request, generator.getAuthorizationHeader());
+    }
+
+    private CompletableFuture<AuthorizationHeader> authorizationHeaderAsync() {
+        CachedToken cached = generator.getCachedTokenIfUsable();
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.authorizationHeader());
+        }
+        return CompletableFuture.supplyAsync(generator::getAuthorizationHeader, executor);
+    }
+
+    static HttpRequest authorize(HttpRequest request, AuthorizationHeader header) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.uri())
+                .method(request.method(), request.bodyPublisher().orElse(HttpRequest.BodyPublishers.noBody()))
+                .expectContinue(request.expectContinue());
+        request.timeout().ifPresent(builder::timeout);
+        request.version().ifPresent(builder::version);
+        request.headers().map().forEach((name, values) -> {
+            if (!AuthorizationHeader.NAME.equalsIgnoreCase(name)) {
+                for (String value : values) {
+                    builder.header(name, value);
+                }
+            }
+        });
+        return builder.header(AuthorizationHeader.NAME, header.value()).build();
+    }
+
+    private static boolean isRejected(HttpResponse<?> response) {
+        return response.statusCode() == 401;
+    }
+
+    /**
+     * Releases the connection of a rejected response whose body the handler left open, e.g. an InputStream.
+     */
+    private static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof Closeable) {
+            try {
+                ((Closeable) response.body()).close();
+            } catch (IOException e) {
+                // The response is discarded anyway.
+            }
+        }
+    }
+}
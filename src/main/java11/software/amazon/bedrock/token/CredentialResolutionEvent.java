@@ -0,0 +1,32 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for resolving the credentials a token is minted with.
+ */
+@Name("software.amazon.bedrock.token.CredentialResolution")
+@Label("Credential Resolution")
+@Category({"AWS", "Bedrock Token"})
+@Description("Resolution of AWS credentials for minting a token")
+final class CredentialResolutionEvent extends Event {
+
+    @Label("Provider")
+    @Description("Class of the credentials provider")
+    String provider;
+
+    @Label("Successful")
+    boolean successful;
+
+    @Label("Failure")
+    @Description("Exception class of a failure")
+    String failure;
+}
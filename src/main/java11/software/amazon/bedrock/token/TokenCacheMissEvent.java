@@ -0,0 +1,31 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a caller of a caching generator that had to mint, or wait for, a new token.
+ */
+@Name("software.amazon.bedrock.token.TokenCacheMiss")
+@Label("Token Cache Miss")
+@Category({"AWS", "Bedrock Token"})
+@Description("A caller waiting for a token to be minted because no cached token could be served")
+final class TokenCacheMissEvent extends Event {
+
+    @Label("Region")
+    String region;
+
+    @Label("Successful")
+    boolean successful;
+
+    @Label("Failure")
+    @Description("Exception class of a failure")
+    String failure;
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a background refresh, revalidation or retry of a cached token.
+ */
+@Name("software.amazon.bedrock.token.TokenCacheRefresh")
+@Label("Token Cache Refresh")
+@Category({"AWS", "Bedrock Token"})
+@Description("A background refresh or revalidation of a cached token")
+final class TokenCacheRefreshEvent extends Event {
+
+    @Label("Region")
+    String region;
+
+    @Label("Attempt")
+    @Description("Attempt number, 1 for the first attempt after a success")
+    int attempt;
+
+    @Label("Successful")
+    boolean successful;
+
+    @Label("Failure")
+    @Description("Exception class of a failure")
+    String failure;
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Duration;
+
+/**
+ * Emits Java Flight Recorder events for token minting, credential resolution and the token cache.
+ * <p>
+ * This is the Java 11 version, packaged under META-INF/versions/11. Whether an event type is enabled is
+ * checked on a shared probe instance, so nothing is allocated unless a recording enables the event.
+ * Events never carry credentials, tokens or exception messages.
+ * <p>
+ * A runtime built with jlink may leave out the jdk.jfr module, and loading an event class then fails.
+ * The events are therefore only touched, through {@link Jfr}, if the boot layer has jdk.jfr; otherwise
+ * every begin method returns null, as on Java 8.
+ */
+final class TokenEvents {
+
+    private static final boolean ENABLED = jfrPresent(ModuleLayer.boot());
+
+    private TokenEvents() {
+    }
+
+    static Object beginMint() {
+        return ENABLED ? Jfr.beginMint() : null;
+    }
+
+    static void endMint(Object handle, Region region, Duration expiry, Throwable failure) {
+        if (handle != null) {
+            Jfr.endMint(handle, region, expiry, failure);
+        }
+    }
+
+    static Object beginCredentialResolution() {
+        return ENABLED ? Jfr.beginCredentialResolution() : null;
+    }
+
+    static void endCredentialResolution(Object handle, Object provider, Throwable failure) {
+        if (handle != null) {
+            Jfr.endCredentialResolution(handle, provider, failure);
+        }
+    }
+
+    static Object beginCacheMiss() {
+        return ENABLED ? Jfr.beginCacheMiss() : null;
+    }
+
+    static void endCacheMiss(Object handle, Region region, Throwable failure) {
+        if (handle != null) {
+            Jfr.endCacheMiss(handle, region, failure);
+        }
+    }
+
+    static Object beginCacheRefresh() {
+        return ENABLED ? Jfr.beginCacheRefresh() : null;
+    }
+
+    static void endCacheRefresh(Object handle, Region region, int attempt, Throwable failure) {
+        if (handle != null) {
+            Jfr.endCacheRefresh(handle, region, attempt, failure);
+        }
+    }
+
+    /**
+     * @return true if the layer contains the jdk.jfr module.
+     */
+    static boolean jfrPresent(ModuleLayer layer) {
+        return layer.findModule("jdk.jfr").isPresent();
+    }
+
+    /**
+     * The JFR-backed implementation. Only loaded once jdk.jfr is known to be present.
+     */
+    private static final class Jfr {
+
+        private static final TokenMintEvent MINT_PROBE = new TokenMintEvent();
+        private static final CredentialResolutionEvent RESOLUTION_PROBE = new CredentialResolutionEvent();
+        private static final TokenCacheMissEvent MISS_PROBE = new TokenCacheMissEvent();
+        private static final TokenCacheRefreshEvent REFRESH_PROBE = new TokenCacheRefreshEvent();
+
+        private Jfr() {
+        }
+
+        static Object beginMint() {
+            if (!MINT_PROBE.isEnabled()) {
+                return null;
+            }
+            TokenMintEvent event = new TokenMintEvent();
+            event.begin();
+            return event;
+        }
+
+        static void endMint(Object handle, Region region, Duration expiry, Throwable failure) {
+            TokenMintEvent event = (TokenMintEvent) handle;
+            event.end();
+            if (event.shouldCommit()) {
+                event.region = regionId(region);
+                event.expiry = expiry != null ? expiry.getSeconds() : 0;
+                event.successful = failure == null;
+                event.failure = failureType(failure);
+                event.commit();
+            }
+        }
+
+        static Object beginCredentialResolution() {
+            if (!RESOLUTION_PROBE.isEnabled()) {
+                return null;
+            }
+            CredentialResolutionEvent event = new CredentialResolutionEvent();
+            event.begin();
+            return event;
+        }
+
+        static void endCredentialResolution(Object handle, Object provider, Throwable failure) {
+            CredentialResolutionEvent event = (CredentialResolutionEvent) handle;
+            event.end();
+            if (event.shouldCommit()) {
+                event.provider = provider != null ? provider.getClass().getName() : null;
+                event.successful = failure == null;
+                event.failure = failureType(failure);
+                event.commit();
+            }
+        }
+
+        static Object beginCacheMiss() {
+            if (!MISS_PROBE.isEnabled()) {
+                return null;
+            }
+            TokenCacheMissEvent event = new TokenCacheMissEvent();
+            event.begin();
+            return event;
+        }
+
+        static void endCacheMiss(Object handle, Region region, Throwable failure) {
+            TokenCacheMissEvent event = (TokenCacheMissEvent) handle;
+            event.end();
+            if (event.shouldCommit()) {
+                event.region = regionId(region);
+                event.successful = failure == null;
+                event.failure = failureType(failure);
+                event.commit();
+            }
+        }
+
+        static Object beginCacheRefresh() {
+            if (!REFRESH_PROBE.isEnabled()) {
+                return null;
+            }
+            TokenCacheRefreshEvent event = new TokenCacheRefreshEvent();
+            event.begin();
+            return event;
+        }
+
+        static void endCacheRefresh(Object handle, Region region, int attempt, Throwable failure) {
+            TokenCacheRefreshEvent event = (TokenCacheRefreshEvent) handle;
+            event.end();
+            if (event.shouldCommit()) {
+                event.region = regionId(region);
+                event.attempt = attempt;
+                event.successful = failure == null;
+                event.failure = failureType(failure);
+                event.commit();
+            }
+        }
+
+        private static String regionId(Region region) {
+            return region != null ? region.id() : null;
+        }
+
+        private static String failureType(Throwable failure) {
+            return failure != null ? failure.getClass().getName() : null;
+        }
+    }
+}
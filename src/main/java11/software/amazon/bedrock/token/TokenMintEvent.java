@@ -0,0 +1,36 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for the signing of one bearer token.
+ */
+@Name("software.amazon.bedrock.token.TokenMint")
+@Label("Token Mint")
+@Category({"AWS", "Bedrock Token"})
+@Description("Signing of a bearer token, excluding credential resolution")
+final class TokenMintEvent extends Event {
+
+    @Label("Region")
+    String region;
+
+    @Label("Expiry")
+    @Timespan(Timespan.SECONDS)
+    long expiry;
+
+    @Label("Successful")
+    boolean successful;
+
+    @Label("Failure")
+    @Description("Exception class of a failure")
+    String failure;
+}
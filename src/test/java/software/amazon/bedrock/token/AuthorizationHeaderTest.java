@@ -0,0 +1,93 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Tests for the AuthorizationHeader class.
+ */
+public class AuthorizationHeaderTest {
+
+
+    @Test
+    public void testRenderings() {
+        BedrockTokenGenerator generator = BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(TestFixtures.CREDENTIALS))
+                .build();
+
+        AuthorizationHeader header = generator.getAuthorizationHeader();
+
+        Assertions.assertEquals("Authorization", AuthorizationHeader.NAME);
+        Assertions.assertEquals("Bearer " + header.token(), header.value());
+        Assertions.assertArrayEquals(header.value().getBytes(StandardCharsets.US_ASCII), header.bytes());
+        ByteBuffer buffer = header.byteBuffer();
+        Assertions.assertTrue(buffer.isReadOnly());
+        Assertions.assertEquals(ByteBuffer.wrap(header.bytes()), buffer);
+        Assertions.assertThrows(ReadOnlyBufferException.class, () -> buffer.put(0, (byte) 0));
+        Assertions.assertFalse(header.toString().contains(header.token()), "toString must not leak the token");
+    }
+
+    @Test
+    public void testByteBuffer_ReturnsIndependentViews() {
+        AuthorizationHeader header = new AuthorizationHeader(token("bedrock-api-key-abc"));
+
+        ByteBuffer first = header.byteBuffer();
+        first.get(new byte[first.remaining()]);
+        ByteBuffer second = header.byteBuffer();
+
+        Assertions.assertFalse(first.hasRemaining());
+        Assertions.assertEquals(0, second.position());
+        Assertions.assertEquals("Bearer bedrock-api-key-abc".length(), second.remaining());
+    }
+
+    @Test
+    public void testCachingGenerator_ReusesHeaderUntilRefresh() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        BedrockTokenGenerator generator = BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(TestFixtures.CREDENTIALS))
+                .expiry(Duration.ofHours(1))
+                .cacheEnabled(true)
+                .clock(clock)
+                .build();
+
+        AuthorizationHeader first = generator.getAuthorizationHeader();
+        Assertions.assertSame(first, generator.getAuthorizationHeader());
+        Assertions.assertEquals(generator.getToken(), first.token());
+        Assertions.assertEquals(Instant.parse("2025-01-01T01:00:00Z"), first.expiration());
+
+        clock.advance(Duration.ofMinutes(56));
+        AuthorizationHeader refreshed = generator.getAuthorizationHeader();
+
+        Assertions.assertNotSame(first, refreshed);
+        Assertions.assertEquals("Bearer " + generator.getToken(), refreshed.value());
+    }
+
+    @Test
+    public void testUncachedGenerator_RendersPerMint() {
+        BedrockTokenGenerator generator = BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(TestFixtures.CREDENTIALS))
+                .build();
+
+        Assertions.assertNotSame(generator.getAuthorizationHeader(), generator.getAuthorizationHeader());
+    }
+
+    private static CachedToken token(String token) {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        return new CachedToken(token, now, now.plus(Duration.ofHours(1)), Duration.ofMinutes(5));
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.IntStream;
+
+/**
+ * Tests for the BatchTokenGenerator class.
+ */
+public class BatchTokenGeneratorTest {
+
+    private static final Instant SIGNING_TIME = Instant.parse("2025-01-01T00:00:00Z");
+    private static final Clock CLOCK = Clock.fixed(SIGNING_TIME, ZoneOffset.UTC);
+    private static final Region[] REGIONS = {Region.US_EAST_1, Region.US_WEST_2, Region.EU_WEST_1};
+
+    @Test
+    public void testGetTokens_ReturnsTokensInRequestOrder() {
+        List<TokenRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            requests.add(TokenRequest.create(credentials(i), REGIONS[i % REGIONS.length], Duration.ofHours(1 + i % 12)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<TokenResult> results = BatchTokenGenerator.builder()
+                    .parallelism(8)
+                    .executor(executor)
+                    .clock(CLOCK)
+                    .build()
+                    .getTokens(requests);
+
+            Assertions.assertEquals(requests.size(), results.size());
+            for (int i = 0; i < requests.size(); i++) {
+                TokenRequest request = requests.get(i);
+                TokenResult result = results.get(i);
+                Assertions.assertSame(request, result.request());
+                Assertions.assertTrue(result.isSuccessful());
+                Assertions.assertNull(result.error());
+                Assertions.assertEquals(BedrockTokenGenerator.getToken(request.credentials(), request.region(),
+                        request.expiry(), SIGNING_TIME), result.token(), "Mismatch for request " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGetTokens_LeavesSharedSigningKeysAlone() {
+        List<TokenRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            requests.add(TokenRequest.create(credentials(i), Region.US_WEST_2));
+        }
+        SigningKeyCache shared = BearerTokenPresigner.signingKeys();
+        int sharedSize = shared.size();
+
+        List<TokenResult> results = BatchTokenGenerator.builder().clock(CLOCK).build().getTokens(requests);
+
+        Assertions.assertEquals(sharedSize, shared.size(), "Batch signing keys should not enter the shared cache");
+        Assertions.assertEquals(BedrockTokenGenerator.getToken(credentials(1_999), Region.US_WEST_2,
+                Duration.ofHours(12), SIGNING_TIME), results.get(1_999).token());
+    }
+
+    @Test
+    public void testGetTokens_FailuresArePerItem() {
+        List<TokenRequest> requests = Arrays.asList(
+                TokenRequest.create(credentials(0), Region.US_WEST_2),
+                TokenRequest.create(credentials(1), Region.US_WEST_2, Duration.ofHours(13)),
+                TokenRequest.create(credentials(2), Region.US_WEST_2, Duration.ofHours(1)));
+
+        List<TokenResult> results = BatchTokenGenerator.builder().parallelism(2).build().getTokens(requests);
+
+        Assertions.assertTrue(results.get(0).isSuccessful());
+        Assertions.assertFalse(results.get(1).isSuccessful());
+        Assertions.assertNull(results.get(1).token());
+        Assertions.assertInstanceOf(IllegalArgumentException.class, results.get(1).error());
+        Assertions.assertTrue(results.get(2).isSuccessful());
+    }
+
+    @Test
+    public void testGetTokens_AcceptsStream() {
+        List<TokenResult> results = BatchTokenGenerator.builder()
+                .clock(CLOCK)
+                .build()
+                .getTokens(IntStream.range(0, 20).mapToObj(i -> TokenRequest.create(credentials(i), Region.US_EAST_1)));
+
+        Assertions.assertEquals(20, results.size());
+        Assertions.assertEquals(
+                BedrockTokenGenerator.getToken(credentials(7), Region.US_EAST_1, Duration.ofHours(12), SIGNING_TIME),
+                results.get(7).token());
+    }
+
+    @Test
+    public void testGetTokens_EmptyBatch() {
+        Assertions.assertTrue(BatchTokenGenerator.builder().build().getTokens(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testGetTokens_RejectingExecutorFallsBackToCallingThread() {
+        List<TokenRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(TokenRequest.create(credentials(i), Region.US_WEST_2));
+        }
+
+        List<TokenResult> results = BatchTokenGenerator.builder()
+                .parallelism(4)
+                .executor(command -> {
+                    throw new RejectedExecutionException("saturated");
+                })
+                .build()
+                .getTokens(requests);
+
+        Assertions.assertEquals(10, results.size());
+        results.forEach(result -> Assertions.assertTrue(result.isSuccessful()));
+    }
+
+    @Test
+    public void testGetTokens_NullRequestThrowsException() {
+        BatchTokenGenerator batch = BatchTokenGenerator.builder().build();
+
+        Assertions.assertThrows(NullPointerException.class,
+                () -> batch.getTokens(Arrays.asList(TokenRequest.create(credentials(0), Region.US_WEST_2), null)));
+    }
+
+    @Test
+    public void testBuilder_NonPositiveParallelismThrowsException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BatchTokenGenerator.builder().parallelism(0).build());
+    }
+
+    @Test
+    public void testTokenRequest_NullCredentialsThrowsException() {
+        Assertions.assertThrows(NullPointerException.class, () -> TokenRequest.create(null, Region.US_WEST_2));
+    }
+
+    private static AwsCredentials credentials(int tenant) {
+        return AwsBasicCredentials.create("AKIAIOSFODNN7TENANT" + tenant, "wJalrXUtnFEMI/K7MDENG/bPxRfiCY" + tenant);
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the BedrockTokenCli class.
+ */
+public class BedrockTokenCliTest {
+
+    private final AtomicInteger resolutions = new AtomicInteger();
+    // Each resolution returns a different access key, so that every mint yields a different token.
+    private final AwsCredentialsProvider rotatingProvider = () -> AwsBasicCredentials.create(
+            "AKIAIOSFODNN7EXAMPL" + resolutions.incrementAndGet(), "wJalrXUtnFEMI/K7MDENG/bPxRfiCYEXAMPLEKEY");
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRun_PrintsToken() {
+        int status = run(rotatingProvider, "--region", "us-west-2", "--expiry", "PT1H");
+
+        Assertions.assertEquals(BedrockTokenCli.EXIT_OK, status);
+        String token = out.toString().trim();
+        Assertions.assertTrue(token.startsWith("bedrock-api-key-"));
+        String decoded = new String(java.util.Base64.getDecoder().decode(token.substring(16)),
+                StandardCharsets.UTF_8);
+        Assertions.assertTrue(decoded.contains("X-Amz-Expires=3600"));
+        Assertions.assertEquals("", err.toString());
+    }
+
+    @Test
+    public void testRun_WritesFileAtomically() throws IOException {
+        Path file = directory.resolve("token");
+        Files.write(file, "previous".getBytes(StandardCharsets.US_ASCII));
+
+        int status = run(rotatingProvider, "--region=us-west-2", "--output", file.toString());
+
+        Assertions.assertEquals(BedrockTokenCli.EXIT_OK, status);
+        String token = new String(Files.readAllBytes(file), StandardCharsets.US_ASCII);
+        Assertions.assertTrue(token.startsWith("bedrock-api-key-"));
+        Assertions.assertFalse(token.endsWith("\n"), "The token should be written without a trailing newline");
+        Assertions.assertEquals("", out.toString(), "The token should not be printed");
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Assertions.assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(1, files.count(), "No temporary file should be left behind");
+        }
+    }
+
+    @Test
+    public void testRun_RejectsInvalidArguments() {
+        Assertions.assertEquals(BedrockTokenCli.EXIT_USAGE, run(rotatingProvider, "--region", "us-west-2", "--bogus"));
+        Assertions.assertTrue(err.toString().contains("Unknown option: --bogus"));
+        Assertions.assertEquals(BedrockTokenCli.EXIT_USAGE, run(rotatingProvider, "--region", "us-west-2", "--watch"));
+        Assertions.assertTrue(err.toString().contains("--watch requires --output"));
+        Assertions.assertEquals(BedrockTokenCli.EXIT_USAGE,
+                run(rotatingProvider, "--region", "us-west-2", "--expiry", "soon"));
+        Assertions.assertTrue(err.toString().contains("Invalid duration for --expiry: soon"));
+        Assertions.assertEquals(BedrockTokenCli.EXIT_USAGE,
+                run(rotatingProvider, "--region", "us-west-2", "--expiry", "13h"));
+        Assertions.assertEquals(BedrockTokenCli.EXIT_USAGE, run(rotatingProvider, "--region"));
+        Assertions.assertTrue(err.toString().contains("Missing value for --region"));
+        Assertions.assertEquals("", out.toString());
+
+        Assertions.assertEquals(BedrockTokenCli.EXIT_OK, run(rotatingProvider, "--help"));
+        Assertions.assertTrue(out.toString().startsWith("Usage:"));
+    }
+
+    @Test
+    public void testRun_ReportsMintFailure() {
+        AwsCredentialsProvider failing = () -> {
+            throw SdkClientException.create("No credentials");
+        };
+
+        int status = run(failing, "--region", "us-west-2");
+
+        Assertions.assertEquals(BedrockTokenCli.EXIT_FAILURE, status);
+        Assertions.assertTrue(err.toString().contains("No credentials"));
+        Assertions.assertEquals("", out.toString());
+    }
+
+    @Test
+    public void testParseDuration() {
+        Assertions.assertEquals(Duration.ofSeconds(3600), BedrockTokenCli.parseDuration("--expiry", "3600"));
+        Assertions.assertEquals(Duration.ofSeconds(90), BedrockTokenCli.parseDuration("--expiry", "90s"));
+        Assertions.assertEquals(Duration.ofMinutes(30), BedrockTokenCli.parseDuration("--expiry", "30m"));
+        Assertions.assertEquals(Duration.ofHours(12), BedrockTokenCli.parseDuration("--expiry", "12H"));
+        Assertions.assertEquals(Duration.ofHours(1), BedrockTokenCli.parseDuration("--expiry", "PT1H"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BedrockTokenCli.parseDuration("--expiry", "1d"));
+    }
+
+    @Test
+    public void testWatch_RewritesFileAtRefreshPoint() throws Exception {
+        Path file = directory.resolve("token");
+        Set<String> written = ConcurrentHashMap.newKeySet();
+        AtomicInteger status = new AtomicInteger(-1);
+        // A 2 second token is due for refresh at its half-life, so the file is rewritten about every second.
+        Thread watcher = new Thread(() -> status.set(
+                run(rotatingProvider, "--region", "us-west-2", "--expiry", "2", "--output", file.toString(),
+                        "--watch")));
+        watcher.setDaemon(true);
+        watcher.start();
+        try {
+            TestFixtures.waitFor(() -> {
+                try {
+                    if (Files.exists(file)) {
+                        written.add(new String(Files.readAllBytes(file), StandardCharsets.US_ASCII));
+                    }
+                } catch (IOException e) {
+                    Assertions.fail("The file should always be readable", e);
+                }
+                return written.size() >= 2;
+            });
+        } finally {
+            watcher.interrupt();
+            watcher.join(5_000);
+        }
+
+        Assertions.assertFalse(watcher.isAlive(), "Watch mode should stop when interrupted");
+        Assertions.assertEquals(BedrockTokenCli.EXIT_OK, status.get());
+        for (String token : written) {
+            Assertions.assertTrue(token.startsWith("bedrock-api-key-"), "Readers should never see a partial token");
+        }
+        Assertions.assertTrue(err.toString().contains("Wrote token expiring at"));
+        Assertions.assertFalse(err.toString().contains("bedrock-api-key-"), "Tokens should not be logged");
+    }
+
+    @Test
+    public void testWatch_DeletesFileWhenTokenExpiresWithoutRefresh() throws Exception {
+        Path file = directory.resolve("token");
+        AwsCredentialsProvider failingAfterFirst = () -> {
+            if (resolutions.incrementAndGet() > 1) {
+                throw SdkClientException.create("Credentials expired");
+            }
+            return TestFixtures.CREDENTIALS;
+        };
+        AtomicInteger status = new AtomicInteger(-1);
+        Thread watcher = new Thread(() -> status.set(
+                run(failingAfterFirst, "--region", "us-west-2", "--expiry", "2", "--output", file.toString(),
+                        "--watch")));
+        watcher.setDaemon(true);
+        watcher.start();
+        watcher.join(10_000);
+
+        Assertions.assertFalse(watcher.isAlive(), "Watch mode should exit once the written token expired");
+        Assertions.assertEquals(BedrockTokenCli.EXIT_FAILURE, status.get());
+        Assertions.assertFalse(Files.exists(file), "An expired token should not be left in place");
+        Assertions.assertTrue(err.toString().contains("Unable to refresh token before it expired"));
+    }
+
+    private int run(AwsCredentialsProvider provider, String... args) {
+        return BedrockTokenCli.run(args, new PrintStream(out, true), new PrintStream(err, true), provider);
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.token.credentials.SdkToken;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.identity.spi.TokenIdentity;
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the BedrockTokenProvider class.
+ */
+public class BedrockTokenProviderTest {
+
+
+    @Test
+    public void testResolveToken_ReusesIdentityUntilRefresh() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        AtomicInteger resolutions = new AtomicInteger();
+        AwsCredentialsProvider provider = () -> {
+            resolutions.incrementAndGet();
+            return TestFixtures.CREDENTIALS;
+        };
+        try (BedrockTokenProvider tokenProvider = BedrockTokenProvider.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(provider)
+                .expiry(Duration.ofHours(1))
+                .clock(clock)
+                .build()) {
+            TestFixtures.waitFor(() -> tokenProvider.resolveIdentity().isDone());
+            SdkToken first = tokenProvider.resolveToken();
+
+            Assertions.assertTrue(first.token().startsWith("bedrock-api-key-"));
+            Assertions.assertEquals(Instant.parse("2025-01-01T01:00:00Z"), first.expirationTime().get());
+            Assertions.assertEquals("BedrockTokenProvider", first.providerName().get());
+            Assertions.assertFalse(first.toString().contains(first.token()), "toString must not leak the token");
+            Assertions.assertSame(first, tokenProvider.resolveToken());
+            Assertions.assertSame(first, tokenProvider.resolveIdentity().get());
+            Assertions.assertEquals(1, resolutions.get());
+
+            clock.advance(Duration.ofMinutes(56));
+            SdkToken refreshed = tokenProvider.resolveToken();
+            Assertions.assertNotSame(first, refreshed);
+            Assertions.assertNotEquals(first.token(), refreshed.token());
+        }
+    }
+
+    @Test
+    public void testResolveIdentity_MintsOnExecutorWhenNothingIsCached() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AwsCredentialsProvider slowProvider = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return TestFixtures.CREDENTIALS;
+        };
+        AtomicInteger executions = new AtomicInteger();
+        try (BedrockTokenProvider tokenProvider = BedrockTokenProvider.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(slowProvider)
+                .executor(command -> {
+                    executions.incrementAndGet();
+                    new Thread(command).start();
+                })
+                .build()) {
+            CompletableFuture<? extends TokenIdentity> identity = tokenProvider.resolveIdentity();
+
+            Assertions.assertFalse(identity.isDone(), "Resolution should not block the caller");
+            Assertions.assertEquals(1, executions.get());
+            release.countDown();
+            Assertions.assertTrue(identity.get(5, TimeUnit.SECONDS).token().startsWith("bedrock-api-key-"));
+            TestFixtures.waitFor(() -> tokenProvider.resolveIdentity().isDone());
+            Assertions.assertEquals(1, executions.get(), "Cached token should be returned without the executor");
+        }
+    }
+
+    @Test
+    public void testResolveIdentity_CompletesExceptionallyOnFailure() {
+        AwsCredentialsProvider failing = () -> {
+            throw SdkClientException.create("No credentials");
+        };
+        try (BedrockTokenProvider tokenProvider = BedrockTokenProvider.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(failing)
+                .build()) {
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                    () -> tokenProvider.resolveIdentity().get(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(e.getCause() instanceof SdkClientException);
+            Assertions.assertThrows(SdkClientException.class, tokenProvider::resolveToken);
+        }
+    }
+
+    @Test
+    public void testIdentityType() {
+        try (BedrockTokenProvider tokenProvider = BedrockTokenProvider.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(() -> TestFixtures.CREDENTIALS)
+                .build()) {
+            Assertions.assertEquals(TokenIdentity.class, tokenProvider.identityType());
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.regions.Region;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the CheckpointHooks class.
+ */
+public class CheckpointHooksTest {
+
+    @Test
+    public void testRefreshingGenerator_RemintsAfterRestore() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        AtomicInteger resolutions = new AtomicInteger();
+        AwsCredentialsProvider provider = () -> {
+            resolutions.incrementAndGet();
+            return TestFixtures.CREDENTIALS;
+        };
+        BedrockTokenGenerator generator = BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(provider)
+                .expiry(Duration.ofHours(1))
+                .backgroundRefresh(true)
+                .clock(clock)
+                .build();
+        TestFixtures.waitFor(() -> resolutions.get() == 1);
+        String beforeCheckpoint = generator.getToken();
+
+        CheckpointHooks.beforeCheckpoint();
+        clock.advance(Duration.ofMinutes(10));
+        CheckpointHooks.afterRestore();
+        TestFixtures.waitFor(() -> resolutions.get() == 2);
+        String afterRestore = generator.getToken();
+
+        Assertions.assertNotEquals(beforeCheckpoint, afterRestore, "Token signed before the checkpoint was served");
+        Assertions.assertEquals(2, resolutions.get(), "The token re-minted after restore should be cached");
+        generator.close();
+    }
+
+    @Test
+    public void testCachingGenerator_MintsOnNextCallAfterRestore() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        AtomicInteger resolutions = new AtomicInteger();
+        AwsCredentialsProvider provider = () -> {
+            resolutions.incrementAndGet();
+            return TestFixtures.CREDENTIALS;
+        };
+        BedrockTokenGenerator generator = BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(provider)
+                .expiry(Duration.ofHours(1))
+                .cacheEnabled(true)
+                .clock(clock)
+                .build();
+        String beforeCheckpoint = generator.getToken();
+
+        CheckpointHooks.beforeCheckpoint();
+        clock.advance(Duration.ofMinutes(10));
+        CheckpointHooks.afterRestore();
+
+        Assertions.assertEquals(1, resolutions.get(), "A plain cache should not mint on restore");
+        Assertions.assertNotEquals(beforeCheckpoint, generator.getToken(),
+                "Token signed before the checkpoint was served");
+        Assertions.assertEquals(2, resolutions.get());
+    }
+
+    @Test
+    public void testBeforeCheckpoint_DropsRenderedHttpResponse() {
+        TokenVendingServer.RegionEndpoint endpoint = new TokenVendingServer.RegionEndpoint(cachingGenerator());
+        endpoint.render();
+
+        CheckpointHooks.beforeCheckpoint();
+
+        Assertions.assertNull(endpoint.peek(), "The rendered response holds the token");
+    }
+
+    @Test
+    public void testBeforeCheckpoint_DropsRenderedSocketFrame() {
+        UnixSocketTokenServer.Endpoint endpoint = new UnixSocketTokenServer.Endpoint(Region.US_WEST_2,
+                cachingGenerator());
+        endpoint.response();
+
+        CheckpointHooks.beforeCheckpoint();
+
+        Assertions.assertNull(endpoint.peek(), "The rendered frame holds the token");
+    }
+
+    @Test
+    public void testBeforeCheckpoint_DropsProviderIdentity() {
+        try (BedrockTokenProvider provider = BedrockTokenProvider.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(() -> TestFixtures.CREDENTIALS)
+                .build()) {
+            provider.resolveToken();
+
+            CheckpointHooks.beforeCheckpoint();
+
+            Assertions.assertNull(provider.peek(), "The SdkToken holds the token");
+        }
+    }
+
+    @Test
+    public void testBeforeCheckpoint_DropsSigningKeysWithoutZeroingThem() {
+        SigningKeyCache cache = new SigningKeyCache();
+        byte[] signingKey = cache.signingKey(TestFixtures.CREDENTIALS.secretAccessKey(), "20250101", "us-east-1");
+        byte[] expected = SigningKeyCache.deriveSigningKey(TestFixtures.CREDENTIALS.secretAccessKey(), "20250101",
+                "us-east-1", "bedrock");
+
+        cache.wipe();
+
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertArrayEquals(expected, signingKey, "A key in use by a concurrent mint must stay intact");
+    }
+
+    @Test
+    public void testAfterRestore_RotatesFingerprintKey() {
+        SigningKeyCache cache = new SigningKeyCache();
+        byte[] before = cache.signingKey(TestFixtures.CREDENTIALS.secretAccessKey(), "20250101", "us-east-1");
+
+        cache.rotateFingerprintKey();
+        byte[] after = cache.signingKey(TestFixtures.CREDENTIALS.secretAccessKey(), "20250101", "us-east-1");
+
+        Assertions.assertNotSame(before, after, "Cache should be cleared by the rotation");
+        Assertions.assertArrayEquals(before, after, "Signing keys do not depend on the fingerprint key");
+    }
+
+    @Test
+    public void testWipeAll_RekeysEnginesInPlace() {
+        byte[] key = "Jefe".getBytes(StandardCharsets.UTF_8);
+        byte[] data = "what do ya want for nothing?".getBytes(StandardCharsets.UTF_8);
+        CryptoEngines before = CryptoEngines.acquire();
+        byte[] expected = before.hmacSha256(key, data);
+        before.release();
+
+        CryptoEngines.wipeAll();
+        CryptoEngines after = CryptoEngines.acquire();
+
+        Assertions.assertSame(before, after, "Engines should be wiped, not replaced");
+        Assertions.assertArrayEquals(expected, after.hmacSha256(key, data), "Wiped engines should remain usable");
+        after.release();
+    }
+
+    @Test
+    public void testWipeRequests_KeepsPresignerUsable() {
+        AwsSessionCredentials credentials = AwsSessionCredentials.create(TestFixtures.CREDENTIALS.accessKeyId(),
+                TestFixtures.CREDENTIALS.secretAccessKey(),
+                "session-token-" + String.join("", Collections.nCopies(300, "x")));
+        String before = BearerTokenPresigner.presign(credentials, Region.US_WEST_2, 900, 1_735_689_600L);
+
+        BearerTokenPresigner.wipeRequests();
+
+        Assertions.assertEquals(before,
+                BearerTokenPresigner.presign(credentials, Region.US_WEST_2, 900, 1_735_689_600L));
+    }
+
+    @Test
+    public void testHooks_RunInOrderAndSurviveFailures() {
+        List<String> calls = new ArrayList<>();
+        CheckpointHooks.Hook failing = new RecordingHook("failing", calls) {
+            @Override
+            public void beforeCheckpoint() {
+                super.beforeCheckpoint();
+                throw new IllegalStateException("failed");
+            }
+        };
+        CheckpointHooks.Hook second = new RecordingHook("second", calls);
+        CheckpointHooks.register(failing);
+        CheckpointHooks.register(second);
+
+        CheckpointHooks.beforeCheckpoint();
+        CheckpointHooks.afterRestore();
+
+        Assertions.assertTrue(calls.indexOf("failing.before") < calls.indexOf("second.before"));
+        Assertions.assertTrue(calls.indexOf("second.after") < calls.indexOf("failing.after"));
+    }
+
+    @Test
+    public void testResourceProxy_DispatchesToHooks() throws Exception {
+        List<String> calls = new ArrayList<>();
+        CheckpointHooks.Hook hook = new RecordingHook("hook", calls);
+        CheckpointHooks.register(hook);
+
+        Resource resource = (Resource) CheckpointHooks.resourceProxy(Resource.class);
+        resource.beforeCheckpoint(null);
+        resource.afterRestore(null);
+
+        Assertions.assertTrue(calls.contains("hook.before"));
+        Assertions.assertTrue(calls.contains("hook.after"));
+        Assertions.assertEquals(resource, resource);
+        Assertions.assertNotNull(resource.toString());
+    }
+
+    private static BedrockTokenGenerator cachingGenerator() {
+        return BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(() -> TestFixtures.CREDENTIALS)
+                .cacheEnabled(true)
+                .build();
+    }
+
+    /**
+     * Mirrors the shape of org.crac.Resource.
+     */
+    public interface Resource {
+        void beforeCheckpoint(Object context) throws Exception;
+
+        void afterRestore(Object context) throws Exception;
+    }
+
+    private static class RecordingHook implements CheckpointHooks.Hook {
+        private final String name;
+        private final List<String> calls;
+
+        RecordingHook(String name, List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public void beforeCheckpoint() {
+            calls.add(name + ".before");
+        }
+
+        @Override
+        public void afterRestore() {
+            calls.add(name + ".after");
+        }
+    }
+}
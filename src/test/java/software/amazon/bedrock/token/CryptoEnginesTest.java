@@ -0,0 +1,82 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Tests for the CryptoEngines class.
+ */
+public class CryptoEnginesTest {
+
+    // RFC 4231, test case 2
+    private static final byte[] KEY = "Jefe".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DATA = "what do ya want for nothing?".getBytes(StandardCharsets.UTF_8);
+    private static final String EXPECTED_HMAC = "5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843";
+
+    @Test
+    public void testSha256_KnownVector() {
+        byte[] data = Arrays.copyOf("abc".getBytes(StandardCharsets.UTF_8), 64);
+        CryptoEngines engines = CryptoEngines.acquire();
+        try {
+            Assertions.assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                    hex(engines.sha256(data, 3)));
+            Assertions.assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                    hex(engines.sha256(data, 3)), "Engine should be reset between uses");
+        } finally {
+            engines.release();
+        }
+    }
+
+    @Test
+    public void testHmacSha256_KnownVectorAcrossKeys() {
+        CryptoEngines engines = CryptoEngines.acquire();
+        try {
+            Assertions.assertEquals(EXPECTED_HMAC, hex(engines.hmacSha256(KEY, DATA)));
+            engines.hmacSha256("another key".getBytes(StandardCharsets.UTF_8), DATA);
+            byte[] padded = Arrays.copyOf(DATA, DATA.length + 10);
+            Assertions.assertEquals(EXPECTED_HMAC, hex(engines.hmacSha256(KEY, padded, DATA.length)));
+        } finally {
+            engines.release();
+        }
+    }
+
+    @Test
+    public void testAcquire_ReusesEnginesOnPlatformThread() {
+        Assertions.assertFalse(CryptoEngines.isVirtualThread());
+        CryptoEngines first = CryptoEngines.acquire();
+        first.release();
+        CryptoEngines second = CryptoEngines.acquire();
+        second.release();
+
+        Assertions.assertSame(first, second, "Platform threads should keep their own engines");
+    }
+
+    @Test
+    public void testAcquirePooled_ReturnsReleasedEngines() {
+        CryptoEngines first = CryptoEngines.acquirePooled();
+        CryptoEngines second = CryptoEngines.acquirePooled();
+        Assertions.assertNotSame(first, second, "Concurrently borrowed engines should be distinct");
+        second.release();
+        first.release();
+
+        CryptoEngines reused = CryptoEngines.acquirePooled();
+        try {
+            Assertions.assertTrue(reused == first || reused == second, "Released engines should be reused");
+            Assertions.assertEquals(EXPECTED_HMAC, hex(reused.hmacSha256(KEY, DATA)));
+        } finally {
+            reused.release();
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        return String.format("%064x", new BigInteger(1, bytes));
+    }
+}
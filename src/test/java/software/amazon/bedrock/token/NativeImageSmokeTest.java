@@ -0,0 +1,61 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Smoke tests that mint tokens through the public entry points. These are the only tests the native profile
+ * runs as a GraalVM native image (mvn -Pnative test), so they must not use mocks or other runtime bytecode
+ * generation.
+ */
+public class NativeImageSmokeTest {
+
+    @Test
+    public void testGenerator_MintsFirstToken() {
+        BedrockTokenGenerator generator = BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(StaticCredentialsProvider.create(TestFixtures.CREDENTIALS))
+                .cacheEnabled(true)
+                .build();
+        String token = generator.getToken();
+
+        Assertions.assertTrue(token.startsWith("bedrock-api-key-"));
+        String url = new String(Base64.getDecoder().decode(token.substring(16)), StandardCharsets.UTF_8);
+        Assertions.assertTrue(url.startsWith("bedrock.amazonaws.com/?Action=CallWithBearerToken"));
+        Assertions.assertTrue(url.endsWith("&Version=1"));
+        Assertions.assertSame(token, generator.getToken(), "Second call should be served from the cache");
+    }
+
+    @Test
+    public void testPresignerMatchesSdkSigner() {
+        Instant signingTime = Instant.parse("2025-01-01T00:00:00Z");
+
+        Assertions.assertTrue(BearerTokenPresigner.isEnabled(), "HmacSHA256 and SHA-256 should be available");
+        Assertions.assertEquals(
+                BedrockTokenGenerator.getTokenWithSdkSigner(TestFixtures.CREDENTIALS, Region.EU_WEST_1,
+                        Duration.ofHours(1), signingTime),
+                BedrockTokenGenerator.getToken(TestFixtures.CREDENTIALS, Region.EU_WEST_1, Duration.ofHours(1),
+                        signingTime));
+    }
+
+    @Test
+    public void testMultiRegionTokens() {
+        RegionalTokens tokens = MultiRegionTokenGenerator.getTokens(TestFixtures.CREDENTIALS,
+                Arrays.asList(Region.US_EAST_1, Region.AP_NORTHEAST_1), Duration.ofHours(1));
+
+        Assertions.assertEquals(2, tokens.tokens().size());
+        Assertions.assertFalse(CryptoEngines.isVirtualThread());
+    }
+}
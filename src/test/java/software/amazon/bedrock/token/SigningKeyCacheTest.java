@@ -0,0 +1,123 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the SigningKeyCache class.
+ */
+public class SigningKeyCacheTest {
+
+    private static final String SECRET = "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY";
+
+    @Test
+    public void testDeriveSigningKey_MatchesPublishedExample() {
+        // Example from the AWS documentation on deriving a SigV4 signing key.
+        byte[] signingKey = SigningKeyCache.deriveSigningKey(SECRET, "20120215", "us-east-1", "iam");
+
+        Assertions.assertEquals("f4780e2d9f65fa895f9c67b32ce1baf0b0d8a43505a000a1a9e090d414db404d", hex(signingKey));
+    }
+
+    @Test
+    public void testSigningKey_ReusesKeyForSameInputs() {
+        SigningKeyCache cache = new SigningKeyCache();
+
+        byte[] first = cache.signingKey(SECRET, "20250101", "us-west-2");
+        byte[] second = cache.signingKey(SECRET, "20250101", "us-west-2");
+
+        Assertions.assertSame(first, second, "Signing key should be served from the cache");
+        Assertions.assertArrayEquals(SigningKeyCache.deriveSigningKey(SECRET, "20250101", "us-west-2", "bedrock"), first);
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSigningKey_EqualSecretInstancesShareKey() {
+        SigningKeyCache cache = new SigningKeyCache();
+
+        byte[] first = cache.signingKey(SECRET, "20250101", "us-west-2");
+        byte[] otherRegion = cache.signingKey(SECRET, "20250101", "us-east-1");
+        byte[] equalSecret = cache.signingKey(new String(SECRET), "20250101", "us-west-2");
+
+        Assertions.assertSame(first, equalSecret, "Equal secrets should share a signing key");
+        Assertions.assertSame(otherRegion, cache.signingKey(SECRET, "20250101", "us-east-1"));
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testWipe_ReusedLookupsDeriveAgain() {
+        SigningKeyCache cache = new SigningKeyCache();
+        byte[] before = cache.signingKey(SECRET, "20250101", "us-west-2");
+
+        cache.wipe();
+        byte[] after = cache.signingKey(SECRET, "20250101", "us-west-2");
+
+        Assertions.assertNotSame(before, after, "A wiped key should not be served again");
+        Assertions.assertArrayEquals(before, after);
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testSigningKey_DistinctInputsHaveDistinctKeys() {
+        SigningKeyCache cache = new SigningKeyCache();
+
+        byte[] usWest2 = cache.signingKey(SECRET, "20250101", "us-west-2");
+        byte[] usEast1 = cache.signingKey(SECRET, "20250101", "us-east-1");
+        byte[] otherSecret = cache.signingKey("je7MtGbClwBF/2Zp9Utk/h3yCo8nvbEXAMPLEKEY", "20250101", "us-west-2");
+
+        Assertions.assertFalse(java.util.Arrays.equals(usWest2, usEast1));
+        Assertions.assertFalse(java.util.Arrays.equals(usWest2, otherSecret));
+        Assertions.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testSigningKey_DateRolloverDropsOlderKeys() {
+        SigningKeyCache cache = new SigningKeyCache();
+
+        cache.signingKey(SECRET, "20250101", "us-west-2");
+        cache.signingKey(SECRET, "20250101", "us-east-1");
+        cache.signingKey(SECRET, "20250102", "us-west-2");
+
+        Assertions.assertEquals(1, cache.size(), "Keys for the previous date should be dropped");
+    }
+
+    @Test
+    public void testPrefetch_DerivesKeysForAllRegions() {
+        SigningKeyCache cache = new SigningKeyCache();
+        CryptoEngines engines = CryptoEngines.acquire();
+        try {
+            cache.prefetch(engines, SECRET, "20250101", java.util.Arrays.asList("us-west-2", "us-east-1", "eu-west-1"));
+        } finally {
+            engines.release();
+        }
+
+        Assertions.assertEquals(3, cache.size());
+        for (String region : new String[] {"us-west-2", "us-east-1", "eu-west-1"}) {
+            byte[] signingKey = cache.signingKey(SECRET, "20250101", region);
+            Assertions.assertArrayEquals(SigningKeyCache.deriveSigningKey(SECRET, "20250101", region, "bedrock"),
+                    signingKey, "Mismatch for region " + region);
+        }
+        Assertions.assertEquals(3, cache.size(), "Prefetched keys should be served from the cache");
+    }
+
+    @Test
+    public void testClear_RemovesAllKeys() {
+        SigningKeyCache cache = new SigningKeyCache();
+
+        cache.signingKey(SECRET, "20250101", "us-west-2");
+        cache.clear();
+
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Tests for the SimpleTokenMetrics class.
+ */
+public class SimpleTokenMetricsTest {
+
+
+    @Test
+    public void testGenerator_RecordsHitsMissesAndTokenAge() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        SimpleTokenMetrics metrics = new SimpleTokenMetrics();
+        BedrockTokenGenerator generator = BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(() -> TestFixtures.CREDENTIALS)
+                .expiry(Duration.ofHours(1))
+                .cacheEnabled(true)
+                .metrics(metrics)
+                .clock(clock)
+                .build();
+
+        generator.getToken();
+        clock.advance(Duration.ofMinutes(10));
+        generator.getToken();
+        clock.advance(Duration.ofMinutes(20));
+        generator.getToken();
+
+        Assertions.assertEquals(1, metrics.mintCount());
+        Assertions.assertEquals(1, metrics.credentialResolutionLatencyNanos().count());
+        Assertions.assertEquals(1, metrics.cacheMissCount());
+        Assertions.assertEquals(2, metrics.cacheHitCount());
+        Assertions.assertEquals(0, metrics.refreshFailureCount());
+        SimpleHistogram age = metrics.tokenAgeMillis();
+        Assertions.assertEquals(3, age.count());
+        Assertions.assertEquals(Duration.ofMinutes(30).toMillis(), age.max());
+        Assertions.assertEquals(Duration.ofMinutes(40).toMillis(), age.sum());
+    }
+
+    @Test
+    public void testGenerator_RecordsMintsWithoutCaching() {
+        SimpleTokenMetrics metrics = new SimpleTokenMetrics();
+        BedrockTokenGenerator generator = BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(() -> TestFixtures.CREDENTIALS)
+                .metrics(metrics)
+                .build();
+
+        generator.getToken();
+        generator.getToken();
+
+        Assertions.assertEquals(2, metrics.mintCount());
+        Assertions.assertEquals(0, metrics.cacheHitCount());
+        Assertions.assertEquals(0, metrics.cacheMissCount());
+        Assertions.assertEquals(0, metrics.tokenAgeMillis().count());
+    }
+
+    @Test
+    public void testGenerator_RecordsRefreshFailure() {
+        SimpleTokenMetrics metrics = new SimpleTokenMetrics();
+        BedrockTokenGenerator generator = BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(() -> {
+                    throw SdkClientException.create("Unable to load credentials");
+                })
+                .cacheEnabled(true)
+                .metrics(metrics)
+                .build();
+
+        Assertions.assertThrows(SdkClientException.class, generator::getToken);
+
+        Assertions.assertEquals(1, metrics.refreshFailureCount());
+        Assertions.assertEquals(1, metrics.cacheMissCount());
+        Assertions.assertEquals(0, metrics.mintCount());
+    }
+
+    @Test
+    public void testGeneratorAsync_RecordsCredentialResolution() {
+        SimpleTokenMetrics metrics = new SimpleTokenMetrics();
+        BedrockTokenGenerator generator = BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(() -> TestFixtures.CREDENTIALS)
+                .metrics(metrics)
+                .build();
+
+        generator.getTokenAsync(Runnable::run).join();
+
+        Assertions.assertEquals(1, metrics.credentialResolutionLatencyNanos().count());
+        Assertions.assertEquals(1, metrics.mintCount());
+    }
+
+    @Test
+    public void testHistogram_Percentiles() {
+        SimpleHistogram histogram = new SimpleHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(0);
+        histogram.record(-5);
+
+        Assertions.assertEquals(102, histogram.count());
+        Assertions.assertEquals(5050, histogram.sum());
+        Assertions.assertEquals(100, histogram.max());
+        Assertions.assertEquals(0, histogram.percentile(0));
+        Assertions.assertEquals(63, histogram.percentile(0.5));
+        Assertions.assertEquals(100, histogram.percentile(0.99));
+        Assertions.assertEquals(100, histogram.percentile(1));
+    }
+
+    @Test
+    public void testHistogram_EmptyAndInvalidQuantile() {
+        SimpleHistogram histogram = new SimpleHistogram();
+
+        Assertions.assertEquals(0, histogram.percentile(0.5));
+        Assertions.assertEquals(0, histogram.mean());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> histogram.percentile(1.5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> histogram.percentile(Double.NaN));
+    }
+
+    @Test
+    public void testNoOp_IsShared() {
+        Assertions.assertSame(TokenMetrics.noOp(), TokenMetrics.noOp());
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tests for the TokenEncoding class.
+ */
+public class TokenEncodingTest {
+
+    @Test
+    public void testEncode_MatchesJdkBase64ForAllTailLengths() {
+        for (int length = 0; length < 300; length++) {
+            byte[] src = new byte[length + 5];
+            ThreadLocalRandom.current().nextBytes(src);
+
+            String expected = BedrockTokenGenerator.AUTH_PREFIX
+                    + Base64.getEncoder().encodeToString(Arrays.copyOf(src, length));
+            Assertions.assertEquals(expected, TokenEncoding.encode(src, length), "Mismatch for length " + length);
+        }
+    }
+
+    @Test
+    public void testEncodeSignedUri_StripsSchemeAndAppendsVersion() {
+        String url = "bedrock.amazonaws.com/?Action=CallWithBearerToken&X-Amz-Signature=abc";
+        String expected = BedrockTokenGenerator.AUTH_PREFIX + Base64.getEncoder().encodeToString(
+                (url + BedrockTokenGenerator.TOKEN_VERSION).getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertEquals(expected, TokenEncoding.encodeSignedUri("https://" + url));
+        Assertions.assertEquals(expected, TokenEncoding.encodeSignedUri(url));
+    }
+
+    @Test
+    public void testEncodeSignedUri_EncodesNonAsciiAsUtf8() {
+        String url = "bedrock.amazonaws.com/?ünïcödé=😀";
+        String expected = BedrockTokenGenerator.AUTH_PREFIX + Base64.getEncoder().encodeToString(
+                (url + BedrockTokenGenerator.TOKEN_VERSION).getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertEquals(expected, TokenEncoding.encodeSignedUri(url));
+    }
+
+    @Test
+    public void testEncodeSignedUri_ZeroesUrlBuffer() {
+        AsciiBuffer url = new AsciiBuffer(16);
+
+        TokenEncoding.encodeSignedUri("https://bedrock.amazonaws.com/?X-Amz-Security-Token=secret", url);
+
+        Assertions.assertEquals(0, url.length());
+        for (byte b : url.array()) {
+            Assertions.assertEquals(0, b, "The URL, which holds the session token, should be zeroed");
+        }
+    }
+}
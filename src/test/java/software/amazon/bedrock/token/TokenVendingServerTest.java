@@ -0,0 +1,276 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the TokenVendingServer class.
+ */
+public class TokenVendingServerTest {
+
+    private final AtomicInteger resolutions = new AtomicInteger();
+    private final AwsCredentialsProvider countingProvider = () -> {
+        resolutions.incrementAndGet();
+        return TestFixtures.CREDENTIALS;
+    };
+    private TokenVendingServer server;
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testGet_ReturnsTokenWithCachingHeaders() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        server = start(TokenVendingServer.builder()
+                .regions(Region.US_WEST_2, Region.EU_WEST_1)
+                .credentialsProvider(countingProvider)
+                .expiry(Duration.ofHours(1))
+                .refreshThreshold(Duration.ofMinutes(5))
+                .clock(clock));
+
+        HttpURLConnection connection = open("/token/eu-west-1");
+
+        Assertions.assertEquals(200, connection.getResponseCode());
+        String token = body(connection);
+        Assertions.assertTrue(token.startsWith("bedrock-api-key-"));
+        Assertions.assertEquals("private, max-age=3300", connection.getHeaderField("Cache-Control"));
+        Assertions.assertTrue(connection.getHeaderField("ETag").matches("\"[0-9a-f]{32}\""));
+        Assertions.assertFalse(connection.getHeaderField("ETag").contains(token));
+        Assertions.assertNotEquals(token, body(open("/token")), "/token should serve the first region");
+        Assertions.assertEquals(token, body(open("/token/eu-west-1")), "Token should be served from the cache");
+    }
+
+    @Test
+    public void testRegions_ShareOneCredentialResolution() throws Exception {
+        server = start(TokenVendingServer.builder()
+                .regions(Region.US_WEST_2, Region.EU_WEST_1, Region.AP_NORTHEAST_1)
+                .credentialsProvider(countingProvider));
+
+        for (String path : new String[] {"/token/us-west-2", "/token/eu-west-1", "/token/ap-northeast-1"}) {
+            Assertions.assertEquals(200, open(path).getResponseCode());
+        }
+
+        Assertions.assertEquals(1, resolutions.get(), "Regions should share one credential resolution");
+    }
+
+    @Test
+    public void testIfNoneMatch_ReturnsNotModified() throws Exception {
+        server = start(TokenVendingServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(countingProvider));
+        HttpURLConnection first = open("/token");
+        Assertions.assertEquals(200, first.getResponseCode());
+        String etag = first.getHeaderField("ETag");
+
+        HttpURLConnection revalidation = open("/token");
+        revalidation.setRequestProperty("If-None-Match", etag);
+
+        Assertions.assertEquals(304, revalidation.getResponseCode());
+        Assertions.assertEquals(etag, revalidation.getHeaderField("ETag"));
+    }
+
+    @Test
+    public void testHead_ReturnsHeadersOnly() throws Exception {
+        server = start(TokenVendingServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(countingProvider));
+        HttpURLConnection connection = open("/token");
+        connection.setRequestMethod("HEAD");
+
+        Assertions.assertEquals(200, connection.getResponseCode());
+        Assertions.assertNotNull(connection.getHeaderField("ETag"));
+        Assertions.assertEquals("", body(connection));
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        AwsCredentialsProvider failing = () -> {
+            throw SdkClientException.create("No credentials");
+        };
+        server = start(TokenVendingServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(failing));
+        HttpURLConnection post = open("/token");
+        post.setRequestMethod("POST");
+
+        Assertions.assertEquals(404, open("/token/us-east-1").getResponseCode());
+        Assertions.assertEquals(404, open("/tokens").getResponseCode());
+        Assertions.assertEquals(405, post.getResponseCode());
+        Assertions.assertEquals("GET, HEAD", post.getHeaderField("Allow"));
+        Assertions.assertEquals(503, open("/token").getResponseCode());
+    }
+
+    @Test
+    public void testUnexpectedMintFailure_ReturnsServiceUnavailable() throws Exception {
+        AwsCredentialsProvider broken = () -> {
+            throw new IllegalStateException("Broken provider");
+        };
+        server = start(TokenVendingServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(broken));
+
+        HttpURLConnection connection = open("/token");
+
+        Assertions.assertEquals(503, connection.getResponseCode());
+        Assertions.assertEquals("1", connection.getHeaderField("Retry-After"));
+    }
+
+    @Test
+    public void testAuthorization_RequiresServerToken() throws Exception {
+        server = start(TokenVendingServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(countingProvider)
+                .authorizationToken("configured-secret"));
+        URL url = new URL("http://127.0.0.1:" + server.port() + "/token");
+        HttpURLConnection missing = (HttpURLConnection) url.openConnection();
+        HttpURLConnection wrong = (HttpURLConnection) url.openConnection();
+        wrong.setRequestProperty("Authorization", "configured-secreT");
+
+        Assertions.assertEquals("configured-secret", server.authorizationToken());
+        Assertions.assertEquals(401, missing.getResponseCode());
+        Assertions.assertEquals(401, wrong.getResponseCode());
+        Assertions.assertEquals(200, open("/token").getResponseCode());
+        Assertions.assertEquals(1, resolutions.get(), "Rejected requests should not mint");
+    }
+
+    @Test
+    public void testHost_RejectsNonLoopbackNames() throws Exception {
+        server = start(TokenVendingServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(countingProvider));
+
+        Assertions.assertEquals(403, rawStatus("attacker.example:" + server.port()));
+        Assertions.assertEquals(403, rawStatus("localhost"));
+        Assertions.assertEquals(403, rawStatus(null));
+        Assertions.assertEquals(200, rawStatus("localhost:" + server.port()));
+        Assertions.assertEquals(200, rawStatus("[::1]:" + server.port()));
+        Assertions.assertEquals(64, server.authorizationToken().length(), "Default token should be random");
+    }
+
+    @Test
+    public void testConcurrentRequests_ShareOneMint() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AwsCredentialsProvider slowProvider = () -> {
+            resolutions.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return TestFixtures.CREDENTIALS;
+        };
+        server = start(TokenVendingServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(slowProvider));
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                responses.add(clients.submit(() -> body(open("/token"))));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            Set<String> tokens = new HashSet<>();
+            for (Future<String> response : responses) {
+                tokens.add(response.get());
+            }
+            Assertions.assertEquals(1, tokens.size());
+            Assertions.assertEquals(1, resolutions.get());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBuilder_Validation() {
+        Assertions.assertThrows(NullPointerException.class, () -> TokenVendingServer.builder().build());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TokenVendingServer.builder().regions(Collections.emptyList()).build());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TokenVendingServer.builder().regions(Region.US_WEST_2).credentialsProvider(countingProvider)
+                        .port(70000).build());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TokenVendingServer.builder().regions(Region.US_WEST_2).credentialsProvider(countingProvider)
+                        .authorizationToken("").build());
+    }
+
+    private static TokenVendingServer start(TokenVendingServer.Builder builder) {
+        return builder.port(0).build().start();
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        URL url = new URL("http://127.0.0.1:" + server.port() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestProperty("Authorization", server.authorizationToken());
+        return connection;
+    }
+
+    /**
+     * Sends an authorized request with the given Host header, which HttpURLConnection does not allow setting.
+     */
+    private int rawStatus(String host) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            String request = "GET /token HTTP/1.1\r\n"
+                    + (host != null ? "Host: " + host + "\r\n" : "")
+                    + "Authorization: " + server.authorizationToken() + "\r\n"
+                    + "Connection: close\r\n\r\n";
+            OutputStream out = socket.getOutputStream();
+            out.write(request.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            StringBuilder statusLine = new StringBuilder();
+            int b;
+            while ((b = in.read()) != -1 && b != '\r') {
+                statusLine.append((char) b);
+            }
+            return Integer.parseInt(statusLine.toString().split(" ")[1]);
+        }
+    }
+
+    private static String body(HttpURLConnection connection) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+}
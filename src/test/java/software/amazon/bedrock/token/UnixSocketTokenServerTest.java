@@ -0,0 +1,224 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the UnixSocketTokenServer and UnixSocketTokenClient classes.
+ */
+public class UnixSocketTokenServerTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger resolutions = new AtomicInteger();
+    private final AwsCredentialsProvider countingProvider = () -> {
+        resolutions.incrementAndGet();
+        return TestFixtures.CREDENTIALS;
+    };
+    private UnixSocketTokenServer server;
+
+    @BeforeEach
+    public void setUp() {
+        Assumptions.assumeTrue(UnixSockets.isSupported(), "Unix domain sockets require Java 16 or later");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testClient_FetchesTokensOverOneConnection() {
+        server = start(UnixSocketTokenServer.builder()
+                .regions(Region.US_WEST_2, Region.EU_WEST_1)
+                .credentialsProvider(countingProvider));
+
+        try (UnixSocketTokenClient client = UnixSocketTokenClient.connect(server.path())) {
+            String token = client.getToken(Region.EU_WEST_1);
+            Assertions.assertTrue(token.startsWith("bedrock-api-key-"));
+            Assertions.assertNotEquals(token, client.getToken(), "No region should fetch the first region");
+            for (int i = 0; i < 100; i++) {
+                Assertions.assertEquals(token, client.getToken(Region.EU_WEST_1));
+            }
+        }
+        Assertions.assertEquals(1, resolutions.get(),
+                "Regions should share one credential resolution and tokens be served from the cache");
+    }
+
+    @Test
+    public void testSocketFile_IsOwnerOnlyAndRemovedOnClose() throws Exception {
+        server = start(UnixSocketTokenServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(countingProvider));
+        Path path = server.path();
+
+        Assertions.assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(path)));
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(1, files.count(), "The temporary bind directory should be removed");
+        }
+        server.close();
+        Assertions.assertFalse(Files.exists(path));
+    }
+
+    @Test
+    public void testPermissions_AreConfigurable() throws Exception {
+        server = start(UnixSocketTokenServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(countingProvider)
+                .permissions(PosixFilePermissions.fromString("rw-rw----")));
+
+        Assertions.assertEquals("rw-rw----",
+                PosixFilePermissions.toString(Files.getPosixFilePermissions(server.path())));
+    }
+
+    @Test
+    public void testErrors() {
+        AwsCredentialsProvider failing = () -> {
+            throw SdkClientException.create("No credentials");
+        };
+        server = start(UnixSocketTokenServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(failing));
+
+        try (UnixSocketTokenClient client = UnixSocketTokenClient.connect(server.path())) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> client.getToken(Region.US_EAST_1));
+            Assertions.assertThrows(SdkClientException.class, client::getToken);
+        }
+    }
+
+    @Test
+    public void testUnexpectedMintFailure_RespondsUnavailable() {
+        AwsCredentialsProvider broken = () -> {
+            throw new IllegalStateException("Broken provider");
+        };
+        server = start(UnixSocketTokenServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(broken));
+
+        try (UnixSocketTokenClient client = UnixSocketTokenClient.connect(server.path())) {
+            Assertions.assertThrows(SdkClientException.class, client::getToken);
+            Assertions.assertThrows(SdkClientException.class, client::getToken,
+                    "The connection should stay open after a failure");
+        }
+    }
+
+    @Test
+    public void testMaxConnections_RejectsExcessConnections() throws Exception {
+        server = start(UnixSocketTokenServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(countingProvider)
+                .maxConnections(1));
+
+        try (UnixSocketTokenClient first = UnixSocketTokenClient.connect(server.path())) {
+            String token = first.getToken();
+            try (SocketChannel second = UnixSockets.connect(server.path())) {
+                ByteBuffer response = ByteBuffer.allocate(64);
+                while (second.read(response) >= 0) {
+                    Assertions.assertTrue(response.hasRemaining(), "Server should close the connection");
+                }
+                Assertions.assertEquals(UnixSocketTokenServer.STATUS_UNAVAILABLE, response.get(0));
+            }
+            Assertions.assertEquals(token, first.getToken(), "The open connection should be unaffected");
+        }
+    }
+
+    @Test
+    public void testAcceptBackoff_DoublesUpToOneSecond() {
+        long backoff = 0;
+        long[] expected = {10, 20, 40, 80, 160, 320, 640, 1_000, 1_000};
+        for (long millis : expected) {
+            backoff = UnixSocketTokenServer.acceptBackoffMillis(backoff);
+            Assertions.assertEquals(millis, backoff);
+        }
+    }
+
+    @Test
+    public void testOversizedRequest_ClosesConnection() throws Exception {
+        server = start(UnixSocketTokenServer.builder()
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(countingProvider));
+
+        try (SocketChannel channel = UnixSockets.connect(server.path())) {
+            ByteBuffer request = ByteBuffer.allocate(2).putShort((short) 1000);
+            request.flip();
+            channel.write(request);
+            ByteBuffer response = ByteBuffer.allocate(64);
+            while (channel.read(response) >= 0) {
+                Assertions.assertTrue(response.hasRemaining(), "Server should close the connection");
+            }
+            Assertions.assertEquals(UnixSocketTokenServer.STATUS_BAD_REQUEST, response.get(0));
+        }
+    }
+
+    @Test
+    public void testBuild_RefusesToReplaceRegularFile() throws Exception {
+        Path file = Files.createFile(directory.resolve("token.sock"));
+
+        Assertions.assertThrows(UncheckedIOException.class, () -> UnixSocketTokenServer.builder()
+                .path(file)
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(countingProvider)
+                .build());
+        Assertions.assertTrue(Files.isRegularFile(file));
+    }
+
+    @Test
+    public void testBuild_ReplacesStaleSocket() {
+        UnixSocketTokenServer stale = UnixSocketTokenServer.builder()
+                .path(directory.resolve("token.sock"))
+                .regions(Region.US_WEST_2)
+                .credentialsProvider(countingProvider)
+                .build();
+        try {
+            server = start(UnixSocketTokenServer.builder()
+                    .regions(Region.US_WEST_2)
+                    .credentialsProvider(countingProvider));
+            try (UnixSocketTokenClient client = UnixSocketTokenClient.connect(server.path())) {
+                Assertions.assertTrue(client.getToken().startsWith("bedrock-api-key-"));
+            }
+        } finally {
+            stale.close();
+        }
+        Assertions.assertTrue(Files.exists(server.path()), "Closing the replaced server should keep the new socket");
+    }
+
+    @Test
+    public void testBuilder_Validation() {
+        Assertions.assertThrows(NullPointerException.class,
+                () -> UnixSocketTokenServer.builder().regions(Region.US_WEST_2).build());
+        Assertions.assertThrows(NullPointerException.class,
+                () -> UnixSocketTokenServer.builder().path(directory.resolve("token.sock")).build());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> UnixSocketTokenServer.builder().path(directory.resolve("token.sock")).regions().build());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> UnixSocketTokenServer.builder().path(directory.resolve("token.sock")).regions(Region.US_WEST_2)
+                        .credentialsProvider(countingProvider).maxConnections(0).build());
+    }
+
+    private UnixSocketTokenServer start(UnixSocketTokenServer.Builder builder) {
+        return builder.path(directory.resolve("token.sock")).build().start();
+    }
+}
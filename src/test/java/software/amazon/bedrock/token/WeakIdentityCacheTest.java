@@ -0,0 +1,38 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the WeakIdentityCache class.
+ */
+public class WeakIdentityCacheTest {
+
+    @Test
+    public void testGet_MatchesByIdentity() {
+        WeakIdentityCache<String, Integer> cache = new WeakIdentityCache<>(16);
+        String key = new String("key");
+
+        cache.put(key, 1);
+
+        Assertions.assertEquals(1, cache.get(key));
+        Assertions.assertNull(cache.get(new String("key")), "Equal objects should not share an entry");
+    }
+
+    @Test
+    public void testPut_ReplacesEntryOfSameSlot() {
+        WeakIdentityCache<Object, Integer> cache = new WeakIdentityCache<>(1);
+        Object first = new Object();
+        Object second = new Object();
+
+        cache.put(first, 1);
+        cache.put(second, 2);
+
+        Assertions.assertEquals(2, cache.get(second));
+        Assertions.assertNull(cache.get(first), "A single slot should only hold the latest entry");
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.bedrock.token;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the Java 11 BedrockHttpClient class.
+ */
+public class BedrockHttpClientTest {
+
+    private final AtomicInteger resolutions = new AtomicInteger();
+    // Each resolution returns a different access key, so that every mint yields a different token.
+    private final AwsCredentialsProvider rotatingProvider = () -> AwsBasicCredentials.create(
+            "AKIAIOSFODNN7EXAMPL" + resolutions.incrementAndGet(), "wJalrXUtnFEMI/K7MDENG/bPxRfiCYEXAMPLEKEY");
+    private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final MutableClock clock = new MutableClock(Instant.now());
+    private HttpServer server;
+    private BedrockTokenGenerator generator;
+    private BedrockHttpClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        generator = BedrockTokenGenerator.builder()
+                .region(Region.US_WEST_2)
+                .credentialsProvider(rotatingProvider)
+                .cacheEnabled(true)
+                .clock(clock)
+                .build();
+        client = BedrockHttpClient.create(HttpClient.newHttpClient(), generator);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testSend_InjectsCachedHeader() throws Exception {
+        HttpResponse<String> first = client.send(request().build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> second = client.send(request().build(), HttpResponse.BodyHandlers.ofString());
+
+        Assertions.assertEquals(200, first.statusCode());
+        Assertions.assertEquals(200, second.statusCode());
+        Assertions.assertEquals(generator.getAuthorizationHeader().value(), received.get(0));
+        Assertions.assertEquals(received.get(0), received.get(1));
+        Assertions.assertEquals(1, resolutions.get());
+    }
+
+    @Test
+    public void testSend_RetriesOnceWithNewTokenWhenRejected() throws Exception {
+        AuthorizationHeader revoked = generator.getAuthorizationHeader();
+        rejected.add(revoked.value());
+        clock.advance(Duration.ofMinutes(1));
+
+        HttpResponse<String> response = client.send(request()
+                .header("Authorization", "Bearer stale")
+                .header("X-Trace", "abc")
+                .POST(HttpRequest.BodyPublishers.ofString("payload"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("POST payload abc", response.body(), "Body and headers should be resent");
+        Assertions.assertEquals(2, received.size());
+        Assertions.assertEquals(revoked.value(), received.get(0), "Existing Authorization should be replaced");
+        Assertions.assertNotEquals(revoked.value(), received.get(1));
+        Assertions.assertEquals(generator.getAuthorizationHeader().value(), received.get(1));
+        Assertions.assertEquals(2, resolutions.get());
+    }
+
+    @Test
+    public void testSend_ReturnsSecondRejection() throws Exception {
+        respondWith(401);
+        generator.getAuthorizationHeader();
+        clock.advance(Duration.ofMinutes(1));
+
+        HttpResponse<InputStream> response = client.send(request().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+
+        Assertions.assertEquals(401, response.statusCode());
+        Assertions.assertEquals(2, received.size(), "Only one retry should be made");
+        response.body().close();
+    }
+
+    @Test
+    public void testSend_KeepsRecentlyMintedTokenWhenRejected() throws Exception {
+        respondWith(401);
+        generator.getAuthorizationHeader();
+        clock.advance(Duration.ofMinutes(1));
+        client.send(request().build(), HttpResponse.BodyHandlers.ofString());
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(401, client.send(request().build(), HttpResponse.BodyHandlers.ofString())
+                    .statusCode());
+        }
+
+        Assertions.assertEquals(5, received.size(), "Rejections of a fresh token should not be retried");
+        Assertions.assertEquals(2, resolutions.get(), "A fresh token should not be re-minted on rejection");
+    }
+
+    @Test
+    public void testSend_DoesNotRetryForbidden() throws Exception {
+        respondWith(403);
+        generator.getAuthorizationHeader();
+        clock.advance(Duration.ofMinutes(1));
+
+        HttpResponse<String> response = client.send(request().build(), HttpResponse.BodyHandlers.ofString());
+
+        Assertions.assertEquals(403, response.statusCode());
+        Assertions.assertEquals(1, received.size());
+        Assertions.assertEquals(1, resolutions.get());
+    }
+
+    @Test
+    public void testSendAsync_RetriesOnceWithNewTokenWhenRejected() throws Exception {
+        AuthorizationHeader revoked = generator.getAuthorizationHeader();
+        rejected.add(revoked.value());
+        clock.advance(Duration.ofMinutes(1));
+
+        HttpResponse<String> response = client.sendAsync(request().build(), HttpResponse.BodyHandlers.ofString())
+                .get();
+
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(2, received.size());
+        Assertions.assertNotEquals(revoked.value(), received.get(1));
+    }
+
+    @Test
+    public void testSendAsync_MintsWhenNothingIsCached() throws Exception {
+        HttpResponse<String> response = client.sendAsync(request().build(), HttpResponse.BodyHandlers.ofString())
+                .get();
+
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(generator.getAuthorizationHeader().value(), received.get(0));
+    }
+
+    @Test
+    public void testInvalidate_IgnoresReplacedToken() {
+        AuthorizationHeader first = generator.getAuthorizationHeader();
+        generator.invalidate(first);
+        AuthorizationHeader second = generator.getAuthorizationHeader();
+
+        generator.invalidate(first);
+
+        Assertions.assertNotEquals(first.value(), second.value());
+        Assertions.assertSame(second, generator.getAuthorizationHeader());
+        Assertions.assertEquals(2, resolutions.get());
+    }
+
+    @Test
+    public void testAuthorize_CopiesRequest() {
+        HttpRequest original = request().header("X-Trace", "abc").build();
+
+        HttpRequest authorized = client.authorize(original);
+
+        Assertions.assertEquals(original.uri(), authorized.uri());
+        Assertions.assertEquals("GET", authorized.method());
+        Assertions.assertEquals("abc", authorized.headers().firstValue("X-Trace").get());
+        Assertions.assertEquals(generator.getAuthorizationHeader().value(),
+                authorized.headers().firstValue("Authorization").get());
+        Assertions.assertFalse(original.headers().firstValue("Authorization").isPresent());
+    }
+
+    private HttpRequest.Builder request() {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/model"));
+    }
+
+    private void respondWith(int status) {
+        server.removeContext("/");
+        server.createContext("/", exchange -> {
+            received.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            respond(exchange, status, "denied");
+        });
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        received.add(authorization);
+        if (rejected.contains(authorization)) {
+            respond(exchange, 401, "rejected");
+            return;
+        }
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        String trace = exchange.getRequestHeaders().getFirst("X-Trace");
+        respond(exchange, 200, exchange.getRequestMethod()
+                + (body.length > 0 ? " " + new String(body, StandardCharsets.UTF_8) : "")
+                + (trace != null ? " " + trace : ""));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}